@@ -0,0 +1,107 @@
+package br.edu.unifacisa.bench;
+
+import br.edu.unifacisa.FirstFit;
+import br.edu.unifacisa.MemoryManager;
+import br.edu.unifacisa.Strategies;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Mede MemoryManager.allocate/free para cada estratégia. A memória começa com liveBlocks processos vivos
+// (ocupando cerca de metade dela) e cada operação libera um processo e aloca outro no lugar, então a
+// quantidade de blocos fica estável durante a medição.
+//
+// Formatos de carga (shape):
+//  - uniform: tamanhos uniformes em torno da média
+//  - bimodal: 90% pedidos pequenos e 10% grandes
+//  - longlived: 80% dos processos nunca são liberados; a troca acontece só nos outros 20%
+//  - churn: além da troca, cada operação aloca TEMPORARIES temporários pequenos e os libera antes de terminar,
+//    então o conjunto vivo fica estável e o substituto é alocado com a memória picotada pelos temporários
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocatorBenchmark {
+    private static final int UNIT_KB = 4;
+    private static final int SCRIPT_SIZE = 1 << 16; // operações pré-sorteadas, reaproveitadas em ciclo
+    private static final int TEMPORARIES = 4;       // temporários por operação em churn
+
+    @Param({"first", "next", "best", "buddy", "tlsf", "bitmap"})
+    public String strategy;
+
+    @Param({"1048576", "16777216"}) // 1GB e 16GB
+    public int memoryKb;
+
+    @Param({"1000", "100000"})
+    public int liveBlocks;
+
+    @Param({"uniform", "bimodal", "longlived", "churn"})
+    public String shape;
+
+    private MemoryManager manager;
+    private String[] processIds;
+    private int[] victims;
+    private int[] sizes;
+    private String[] temporaryIds;    // null fora de churn
+    private int[] temporarySizes;     // TEMPORARIES por operação do roteiro
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = new MemoryManager(memoryKb, UNIT_KB, new FirstFit());
+        Strategies.apply(manager, strategy);
+        SplittableRandom random = new SplittableRandom(42);
+        int meanKb = Math.max(UNIT_KB, memoryKb / liveBlocks / 2);
+
+        processIds = new String[liveBlocks];
+        for (int i = 0; i < liveBlocks; i++) {
+            processIds[i] = "P" + i;
+            manager.allocate(processIds[i], nextSize(random, meanKb));
+        }
+
+        // só os últimos 20% trocam em longlived; os demais ficam a execução inteira
+        int firstVictim = "longlived".equals(shape) ? liveBlocks - Math.max(1, liveBlocks / 5) : 0;
+        victims = new int[SCRIPT_SIZE];
+        sizes = new int[SCRIPT_SIZE];
+        for (int i = 0; i < SCRIPT_SIZE; i++) {
+            victims[i] = firstVictim + random.nextInt(liveBlocks - firstVictim);
+            sizes[i] = nextSize(random, meanKb);
+        }
+        if ("churn".equals(shape)) {
+            temporaryIds = new String[TEMPORARIES];
+            for (int t = 0; t < TEMPORARIES; t++) temporaryIds[t] = "T" + t;
+            temporarySizes = new int[SCRIPT_SIZE * TEMPORARIES];
+            for (int i = 0; i < temporarySizes.length; i++) temporarySizes[i] = 1 + random.nextInt(Math.max(1, meanKb / 4));
+        }
+    }
+
+    // Uma operação = liberar um processo vivo + alocar o substituto com o mesmo ID (em churn, entre a alocação
+    // e a liberação dos temporários)
+    @Benchmark
+    public boolean freeAndAllocate() {
+        int i = cursor;
+        cursor = (i + 1) & (SCRIPT_SIZE - 1);
+        String processId = processIds[victims[i]];
+        if (temporaryIds == null) {
+            manager.free(processId);
+            return manager.allocate(processId, sizes[i]);
+        }
+        for (int t = 0; t < TEMPORARIES; t++) manager.allocate(temporaryIds[t], temporarySizes[i * TEMPORARIES + t]);
+        manager.free(processId);
+        boolean allocated = manager.allocate(processId, sizes[i]);
+        for (int t = 0; t < TEMPORARIES; t++) manager.free(temporaryIds[t]); // um temporário que falhou libera 0KB
+        return allocated;
+    }
+
+    private int nextSize(SplittableRandom random, int meanKb) {
+        if ("bimodal".equals(shape)) {
+            return random.nextInt(10) == 0
+                    ? meanKb * 4 + random.nextInt(meanKb * 2)
+                    : 1 + random.nextInt(Math.max(1, meanKb / 2));
+        }
+        return 1 + random.nextInt(meanKb * 2);
+    }
+}
@@ -0,0 +1,157 @@
+package br.edu.unifacisa;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Sequência de referências à memória para o PagedMemory, guardada em colunas (processo, página, escrita) para
+// que a reprodução não crie objetos nem converta texto. Os endereços viram páginas de pageKb na carga.
+//
+// Formato texto (uma referência por linha, '#' começa comentário):
+//     processo endereço [R|W]
+// com o endereço em bytes, decimal ou hexadecimal (0x...); sem a letra a referência é uma leitura.
+public class AccessTrace {
+    private final List<String> processNames = new ArrayList<>();
+    private int[] processes;
+    private int[] pages;
+    private boolean[] writes;
+    private int length;
+
+    private AccessTrace(int capacity) {
+        processes = new int[capacity];
+        pages = new int[capacity];
+        writes = new boolean[capacity];
+    }
+
+    public static AccessTrace load(Path file, int pageKb) throws IOException {
+        AccessTrace trace = new AccessTrace(1024);
+        Map<String, Integer> refs = new HashMap<>();
+        long pageBytes = pageKb * 1024L;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                int comment = line.indexOf('#');
+                if (comment >= 0) line = line.substring(0, comment);
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                String[] p = line.split("\\s+");
+                if (p.length < 2 || p.length > 3) {
+                    throw new IOException("Linha " + lineNumber + " mal formada: " + line);
+                }
+                boolean write = false;
+                if (p.length == 3) {
+                    if (p[2].equalsIgnoreCase("W")) write = true;
+                    else if (!p[2].equalsIgnoreCase("R")) throw new IOException("Linha " + lineNumber + ": tipo deve ser R ou W");
+                }
+                long address;
+                try {
+                    address = p[1].startsWith("0x") || p[1].startsWith("0X")
+                            ? Long.parseUnsignedLong(p[1].substring(2), 16)
+                            : Long.parseLong(p[1]);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Linha " + lineNumber + ": endereço inválido " + p[1], e);
+                }
+                long page = address / pageBytes;
+                if (address < 0 || page > Integer.MAX_VALUE) {
+                    throw new IOException("Linha " + lineNumber + ": endereço fora do alcance " + p[1]);
+                }
+                Integer ref = refs.get(p[0]);
+                if (ref == null) {
+                    ref = trace.processNames.size();
+                    trace.processNames.add(p[0]);
+                    refs.put(p[0], ref);
+                }
+                trace.add(ref, (int) page, write);
+            }
+        }
+        return trace;
+    }
+
+    // Referências sintéticas: os processos se revezam em fatias de quantum referências; cada um tem um espaço
+    // virtual de pages[i] páginas e, com probabilidade locality, referencia uma página da sua janela de trabalho
+    // (workingSet páginas, que se desloca devagar), senão uma página qualquer. writeFraction das referências são
+    // escritas.
+    public static AccessTrace generate(long seed, int[] processPages, int count, int quantum, double locality,
+                                       int workingSet, double writeFraction) {
+        AccessTrace trace = new AccessTrace(count);
+        SplittableRandom random = new SplittableRandom(seed);
+        int n = processPages.length;
+        int[] window = new int[n];
+        for (int i = 0; i < n; i++) trace.processNames.add("P" + (i + 1));
+        int process = 0;
+        for (int i = 0; i < count; i++) {
+            if (i % quantum == 0) process = random.nextInt(n);
+            int size = processPages[process];
+            int page;
+            if (random.nextDouble() < locality) {
+                int span = Math.min(workingSet, size);
+                page = (window[process] + random.nextInt(span)) % size;
+                if (random.nextInt(256) == 0) window[process] = (window[process] + 1) % size;
+            } else {
+                page = random.nextInt(size);
+            }
+            trace.add(process, page, random.nextDouble() < writeFraction);
+        }
+        return trace;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int processCount() {
+        return processNames.size();
+    }
+
+    // Nome do processo de índice i (os índices de process() vão de 0 a processCount() - 1)
+    public String processName(int i) {
+        return processNames.get(i);
+    }
+
+    public int process(int i) {
+        return processes[i];
+    }
+
+    public int page(int i) {
+        return pages[i];
+    }
+
+    public boolean write(int i) {
+        return writes[i];
+    }
+
+    // Reproduz todas as referências no PagedMemory, registrando os processos, e devolve quantas faltaram
+    public long replay(PagedMemory memory) {
+        int[] handles = new int[processNames.size()];
+        for (int i = 0; i < handles.length; i++) handles[i] = memory.register(processNames.get(i));
+        long faults = 0;
+        int[] processes = this.processes, pages = this.pages;
+        boolean[] writes = this.writes;
+        for (int i = 0; i < length; i++) {
+            if (!memory.accessPage(handles[processes[i]], pages[i], writes[i])) faults++;
+        }
+        return faults;
+    }
+
+    private void add(int process, int page, boolean write) {
+        if (length == pages.length) {
+            int capacity = length * 2;
+            processes = Arrays.copyOf(processes, capacity);
+            pages = Arrays.copyOf(pages, capacity);
+            writes = Arrays.copyOf(writes, capacity);
+        }
+        processes[length] = process;
+        pages[length] = page;
+        writes[length++] = write;
+    }
+}
@@ -0,0 +1,37 @@
+package br.edu.unifacisa;
+
+// Interface de estratégia para motores de alocação que mantêm a própria estrutura de dados,
+// em vez de escolher um índice na BlockTree compartilhada (ex.: Buddy).
+// Endereços e tamanhos são em KB e sempre múltiplos da unidade informada em reset().
+
+public interface AllocatorEngine {
+    // Prepara o motor para uma memória vazia de totalKb dividida em unidades de unitKb
+    void reset(int totalKb, int unitKb);
+
+    // Reserva um bloco de pelo menos requiredKb; retorna o endereço inicial ou -1 se não couber
+    int allocate(int requiredKb);
+
+    // Devolve o bloco que começa em startKb; retorna o tamanho que estava reservado
+    int release(int startKb);
+
+    // Tamanho reservado para o bloco em startKb (pode passar do pedido: fragmentação interna)
+    int blockSizeKb(int startKb);
+
+    int freeKb();
+
+    // Quantidade de blocos livres, mantida a cada divisão/junção (leitura O(1))
+    int freeBlockCount();
+
+    // Totais acumulados desde reset() de divisões e junções de blocos (métricas)
+    long splitCount();
+
+    long coalesceCount();
+
+    // Maior pedido que o motor consegue atender agora
+    int largestFreeKb();
+
+    // Maior pedido que o motor atende com a memória vazia; pedidos maiores nunca cabem
+    int maxBlockKb();
+
+    String getName();
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package br.edu.unifacisa;
+
+// Receptor das medições de cada operação do MemoryManager (ver MemoryManager.setMetrics).
+// Sem receptor registrado o MemoryManager não mede nada: nem relógio nem contagem extra no caminho quente.
+public interface AllocatorMetrics {
+
+    // Uma chamada a allocate(): latência, se alocou, se a memória livre total comportaria o pedido (falha por
+    // fragmentação quando true e success é false), nós examinados pela busca e divisões de bloco feitas
+    void onAllocate(long nanos, int requiredKb, boolean success, boolean enoughFreeSpace, int inspected, int splits);
+
+    // Uma chamada a free(): latência, KB devolvidos e junções de blocos livres feitas
+    void onFree(long nanos, int releasedKb, int coalesces);
+}
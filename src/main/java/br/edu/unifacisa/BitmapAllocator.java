@@ -0,0 +1,315 @@
+package br.edu.unifacisa;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Motor de alocação por mapa de bits: um bit por unidade (1 = ocupada) em palavras de 64 bits. Um segundo nível
+// (summary) tem um bit por palavra cheia, então a busca pula 64 palavras ocupadas lendo um único long.
+//
+// allocate/release são seguros entre threads sem locks: cada palavra é reservada ou devolvida com CAS, e um
+// intervalo que atravessa palavras é reservado palavra a palavra, desfazendo as já tomadas se outra thread chegar
+// antes. O summary é só uma dica: quem marca uma palavra como cheia confere de novo e desmarca se ela liberou.
+// Cada thread continua a busca de onde parou (como o Next Fit), o que espalha as threads pela memória e evita
+// que disputem as mesmas palavras. reset() e as consultas de fragmentação não são atômicos em relação às alocações.
+//
+// Pedidos de até 64 unidades procuram primeiro uma sequência livre dentro de uma palavra com operações de bits;
+// os maiores (ou quando nenhuma palavra isolada serve) percorrem as sequências livres entre palavras.
+public class BitmapAllocator implements AllocatorEngine {
+    private int unitKb;
+    private int units;
+    private int words;
+    private AtomicLongArray bits;
+    private AtomicLongArray summary;
+    private int[] length;                 // por unidade inicial: unidades do bloco alocado
+    private final LongAdder usedUnits = new LongAdder();
+    private final ThreadLocal<int[]> rover = ThreadLocal.withInitial(() -> new int[1]); // palavra onde a thread parou
+
+    @Override
+    public void reset(int totalKb, int unitKb) {
+        this.unitKb = unitKb;
+        this.units = totalKb / unitKb;
+        this.words = (units + 63) >>> 6;
+        bits = new AtomicLongArray(words);
+        summary = new AtomicLongArray((words + 63) >>> 6);
+        length = new int[units];
+        usedUnits.reset();
+        // bits depois da última unidade ficam ocupados para nunca serem alocados
+        if ((units & 63) != 0) {
+            bits.set(words - 1, -1L << (units & 63));
+        }
+        rover.get()[0] = 0;
+    }
+
+    @Override
+    public int allocate(int requiredKb) {
+        int n = (requiredKb + unitKb - 1) / unitKb;
+        if (n <= 0 || n > units) return -1;
+        int[] hint = rover.get();
+        int start = n <= 64 ? allocateInWord(n, hint[0]) : -1;
+        if (start < 0) start = allocateRun(n, hint[0]);
+        if (start < 0) return -1;
+        length[start] = n;
+        usedUnits.add(n);
+        hint[0] = (start + n) >>> 6 < words ? (start + n) >>> 6 : 0;
+        return start * unitKb;
+    }
+
+    @Override
+    public int release(int startKb) {
+        int start = startKb / unitKb;
+        int n = length[start];
+        if (n == 0 || !isUsed(start)) throw new IllegalArgumentException("Bloco em " + startKb + "KB já está livre");
+        length[start] = 0;
+        clearRange(start, start + n);
+        usedUnits.add(-n);
+        return n * unitKb;
+    }
+
+    @Override
+    public int blockSizeKb(int startKb) {
+        return length[startKb / unitKb] * unitKb;
+    }
+
+    @Override
+    public int freeKb() {
+        return (int) (units - usedUnits.sum()) * unitKb;
+    }
+
+    // Sem contador incremental: as sequências livres são contadas palavra a palavra (O(unidades / 64))
+    @Override
+    public int freeBlockCount() {
+        int count = 0;
+        long previousTopFree = 0; // bit 63 da palavra anterior estava livre
+        for (int i = 0; i < words; i++) {
+            long free = ~bits.get(i);
+            // início de sequência: bit livre cujo vizinho de baixo está ocupado
+            count += Long.bitCount(free & ~((free << 1) | previousTopFree));
+            previousTopFree = free >>> 63;
+        }
+        return count;
+    }
+
+    // O mapa de bits não divide nem junta blocos: liberar só apaga os bits
+    @Override
+    public long splitCount() {
+        return 0;
+    }
+
+    @Override
+    public long coalesceCount() {
+        return 0;
+    }
+
+    // Maior sequência livre, percorrida palavra a palavra (O(unidades / 64))
+    @Override
+    public int largestFreeKb() {
+        int best = 0, run = 0;
+        for (int i = 0; i < words; i++) {
+            long word = bits.get(i);
+            if (word == 0) {
+                run += 64;
+                continue;
+            }
+            if (word == -1L) {
+                best = Math.max(best, run);
+                run = 0;
+                continue;
+            }
+            // bits livres na base da palavra continuam a sequência anterior
+            run += Long.numberOfTrailingZeros(word);
+            best = Math.max(best, run);
+            // sequências entre o bit ocupado mais baixo e o mais alto
+            long interior = ~word & (-1L >>> Long.numberOfLeadingZeros(word)) & (-1L << Long.numberOfTrailingZeros(word));
+            best = Math.max(best, longestOnes(interior));
+            // bits livres no topo começam a próxima sequência
+            run = Long.numberOfLeadingZeros(word);
+        }
+        return Math.max(best, run) * unitKb;
+    }
+
+    @Override
+    public int maxBlockKb() {
+        return units * unitKb;
+    }
+
+    @Override
+    public String getName() {
+        return "Bitmap";
+    }
+
+    // Unidade ocupada? (leitura direta do mapa)
+    public boolean isUsed(int unit) {
+        return (bits.get(unit >>> 6) & (1L << unit)) != 0;
+    }
+
+    // Procura n unidades seguidas dentro de uma única palavra, a partir da palavra first
+    private int allocateInWord(int n, int first) {
+        for (int i = nextNonFull(first), visited = 0; i >= 0 && visited < words; visited++) {
+            while (true) {
+                long word = bits.get(i);
+                long starts = runStarts(~word, n);
+                if (starts == 0) break;
+                int bit = Long.numberOfTrailingZeros(starts);
+                long mask = (n == 64 ? -1L : (1L << n) - 1) << bit;
+                if (bits.compareAndSet(i, word, word | mask)) {
+                    if ((word | mask) == -1L) markFull(i);
+                    return (i << 6) + bit;
+                }
+                // outra thread mexeu na palavra: relê e tenta de novo
+            }
+            int next = i + 1 == words ? 0 : i + 1;
+            i = nextNonFull(next);
+        }
+        return -1;
+    }
+
+    // Procura n unidades seguidas atravessando palavras
+    private int allocateRun(int n, int firstWord) {
+        int origin = firstWord << 6;
+        // duas passadas: de origin até o fim e depois do início até origin
+        for (int pass = 0; pass < 2; pass++) {
+            int from = pass == 0 ? origin : 0;
+            int limit = pass == 0 ? units : Math.min(units, origin + n);
+            int p = nextFree(from, limit);
+            while (p >= 0 && p + n <= units) {
+                int end = nextUsed(p, Math.min(units, p + n));
+                if (end - p >= n) {
+                    if (claimRange(p, p + n)) return p;
+                    // perdeu a corrida: continua logo depois
+                    p = nextFree(p + 1, limit);
+                } else {
+                    p = nextFree(end, limit);
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Bits onde começa uma sequência de n bits ligados em free (duplicando o deslocamento: O(log n))
+    private static long runStarts(long free, int n) {
+        long m = free;
+        int len = 1;
+        while (len < n && m != 0) {
+            int shift = Math.min(len, n - len);
+            m &= m >>> shift;
+            len += shift;
+        }
+        return m;
+    }
+
+    private static int longestOnes(long x) {
+        int best = 0;
+        while (x != 0) {
+            int start = Long.numberOfTrailingZeros(x);
+            long shifted = x >>> start;
+            int len = shifted == -1L ? 64 - start : Long.numberOfTrailingZeros(~shifted);
+            best = Math.max(best, len);
+            x &= len + start >= 64 ? 0 : -1L << (start + len);
+        }
+        return best;
+    }
+
+    // Reserva [from, to) palavra por palavra; se algum bit já estiver ocupado, devolve o que pegou e falha
+    private boolean claimRange(int from, int to) {
+        for (int i = from >>> 6, last = (to - 1) >>> 6; i <= last; i++) {
+            long mask = rangeMask(i, from, to);
+            while (true) {
+                long word = bits.get(i);
+                if ((word & mask) != 0) {
+                    if (i > from >>> 6) clearRange(from, i << 6);
+                    return false;
+                }
+                if (bits.compareAndSet(i, word, word | mask)) {
+                    if ((word | mask) == -1L) markFull(i);
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void clearRange(int from, int to) {
+        for (int i = from >>> 6, last = (to - 1) >>> 6; i <= last; i++) {
+            long mask = rangeMask(i, from, to);
+            long word;
+            do {
+                word = bits.get(i);
+            } while (!bits.compareAndSet(i, word, word & ~mask));
+            if (word == -1L) clearFull(i);
+        }
+    }
+
+    // Bits da palavra i que caem em [from, to)
+    private static long rangeMask(int i, int from, int to) {
+        int lo = Math.max(from, i << 6) - (i << 6);
+        int hi = Math.min(to, (i + 1) << 6) - (i << 6); // exclusivo, 1..64
+        long upper = hi == 64 ? -1L : (1L << hi) - 1;
+        return upper & (-1L << lo);
+    }
+
+    private void markFull(int word) {
+        long bit = 1L << word;
+        int s = word >>> 6;
+        long old;
+        do {
+            old = summary.get(s);
+        } while ((old & bit) == 0 && !summary.compareAndSet(s, old, old | bit));
+        // a palavra pode ter sido liberada entre o CAS e a marcação: não deixa a dica errada
+        if (bits.get(word) != -1L) clearFull(word);
+    }
+
+    private void clearFull(int word) {
+        long bit = 1L << word;
+        int s = word >>> 6;
+        long old;
+        do {
+            old = summary.get(s);
+        } while ((old & bit) != 0 && !summary.compareAndSet(s, old, old & ~bit));
+    }
+
+    // Primeira palavra >= from que não está marcada como cheia, ou -1 (sem dar a volta)
+    private int nextNonFullFrom(int from) {
+        for (int s = from >>> 6, count = summary.length(); s < count; s++) {
+            long notFull = ~summary.get(s);
+            if (s == from >>> 6) notFull &= -1L << from;
+            if (notFull != 0) {
+                int word = (s << 6) + Long.numberOfTrailingZeros(notFull);
+                return word < words ? word : -1;
+            }
+        }
+        return -1;
+    }
+
+    // Primeira palavra não cheia a partir de from, dando a volta no fim
+    private int nextNonFull(int from) {
+        int i = nextNonFullFrom(from);
+        return i >= 0 || from == 0 ? i : nextNonFullFrom(0);
+    }
+
+    // Primeira unidade livre em [from, limit), ou -1
+    private int nextFree(int from, int limit) {
+        while (from < limit) {
+            int i = from >>> 6;
+            long free = ~bits.get(i) & (-1L << from);
+            if (free != 0) {
+                int unit = (i << 6) + Long.numberOfTrailingZeros(free);
+                return unit < limit ? unit : -1;
+            }
+            int next = nextNonFullFrom(i + 1);
+            if (next < 0) return -1;
+            from = next << 6;
+        }
+        return -1;
+    }
+
+    // Primeira unidade ocupada em [from, limit), ou limit
+    private int nextUsed(int from, int limit) {
+        while (from < limit) {
+            int i = from >>> 6;
+            long used = bits.get(i) & (-1L << from);
+            if (used != 0) return Math.min(limit, (i << 6) + Long.numberOfTrailingZeros(used));
+            from = (i + 1) << 6;
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,344 @@
+package br.edu.unifacisa;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Blocos de memória ordenados por endereço (startKb) em uma árvore balanceada (treap por posição).
+// Cada nó guarda quantos blocos e qual o maior bloco livre existem na sua subárvore, assim o acesso
+// por índice e a busca do primeiro bloco livre que comporte um tamanho custam O(log n).
+// Os nós ficam em vetores primitivos (um int por campo) e são identificados pelo número do nó,
+// então o custo de memória é proporcional à quantidade de blocos, sem um objeto por bloco.
+public class BlockTree {
+    public static final int FREE = -1; // dono de um bloco livre
+    public static final int NIL = -1;  // ausência de nó
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // campos do bloco
+    private int[] start;
+    private int[] size;
+    private int[] owner;      // handle do processo dono (ver ProcessIndex) ou FREE
+    // campos da árvore
+    private int[] left;
+    private int[] right;
+    private int[] priority;
+    private int[] count;      // blocos na subárvore
+    private int[] maxFree;    // maior bloco livre da subárvore em KB (0 se não houver)
+
+    private int root = NIL;
+    private int nodeCount;            // nós já usados alguma vez
+    private int[] recycled = new int[INITIAL_CAPACITY];
+    private int recycledCount;
+    private int seed = 0x2545F491;
+    // resultado de split(), evita alocar um par a cada operação
+    private int splitLeft, splitRight;
+    private long inspected;           // nós visitados pelas buscas (métricas)
+
+    public BlockTree() {
+        allocateArrays(INITIAL_CAPACITY);
+    }
+
+    public int size() {
+        return count(root);
+    }
+
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+
+    // Remove todos os blocos e devolve os vetores ao tamanho inicial
+    public void clear() {
+        root = NIL;
+        nodeCount = 0;
+        recycledCount = 0;
+        if (start.length > INITIAL_CAPACITY) allocateArrays(INITIAL_CAPACITY);
+    }
+
+    // Cria um nó fora da árvore; use add() para posicioná-lo
+    public int newNode(int startKb, int sizeKb, int ownerHandle) {
+        int node;
+        if (recycledCount > 0) {
+            node = recycled[--recycledCount];
+        } else {
+            if (nodeCount == start.length) grow();
+            node = nodeCount++;
+        }
+        start[node] = startKb;
+        size[node] = sizeKb;
+        owner[node] = ownerHandle;
+        left[node] = NIL;
+        right[node] = NIL;
+        priority[node] = nextPriority();
+        pull(node);
+        return node;
+    }
+
+    public int startKb(int node) {
+        return start[node];
+    }
+
+    public int sizeKb(int node) {
+        return size[node];
+    }
+
+    public int owner(int node) {
+        return owner[node];
+    }
+
+    public boolean isFree(int node) {
+        return owner[node] == FREE;
+    }
+
+    // Os setters não atualizam a árvore: chame refresh(index) depois de alterar tamanho ou dono
+    public void setSizeKb(int node, int sizeKb) {
+        size[node] = sizeKb;
+    }
+
+    public void setOwner(int node, int ownerHandle) {
+        owner[node] = ownerHandle;
+    }
+
+    // Só para relocação: o novo início precisa manter a ordem de endereços em relação aos vizinhos
+    public void setStartKb(int node, int startKb) {
+        start[node] = startKb;
+    }
+
+    // Nó na posição index (ordem de endereço)
+    public int nodeAt(int index) {
+        checkIndex(index);
+        int n = root;
+        while (true) {
+            int leftCount = count(left[n]);
+            if (index < leftCount) {
+                n = left[n];
+            } else if (index == leftCount) {
+                return n;
+            } else {
+                index -= leftCount + 1;
+                n = right[n];
+            }
+        }
+    }
+
+    public void add(int node) {
+        add(size(), node);
+    }
+
+    // Monta a árvore vazia de uma vez com os nós (de newNode) já em ordem de endereço, em O(n): a pilha guarda o
+    // caminho mais à direita e cada nó desce até achar um pai de prioridade maior (árvore cartesiana)
+    public void addAll(int[] nodes, int n) {
+        if (root != NIL) throw new IllegalStateException("addAll só monta uma árvore vazia");
+        int[] stack = new int[Math.max(1, n)];
+        int top = 0;
+        for (int i = 0; i < n; i++) {
+            int node = nodes[i];
+            int last = NIL;
+            while (top > 0 && priority[stack[top - 1]] < priority[node]) {
+                last = stack[--top];
+                pull(last);
+            }
+            left[node] = last;
+            right[node] = NIL;
+            if (top > 0) right[stack[top - 1]] = node;
+            stack[top++] = node;
+        }
+        while (top > 0) pull(stack[--top]);
+        root = n > 0 ? stack[0] : NIL;
+    }
+
+    // Insere o nó na posição index, deslocando os seguintes
+    public void add(int index, int node) {
+        if (index < 0 || index > size()) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        split(root, index);
+        int l = splitLeft, r = splitRight;
+        root = merge(merge(l, node), r);
+    }
+
+    // Retira o bloco da posição index e recicla o nó
+    public void remove(int index) {
+        checkIndex(index);
+        split(root, index);
+        int l = splitLeft;
+        split(splitRight, 1);
+        int removed = splitLeft;
+        root = merge(l, splitRight);
+        if (recycledCount == recycled.length) recycled = Arrays.copyOf(recycled, recycled.length * 2);
+        recycled[recycledCount++] = removed;
+    }
+
+    // Recalcula os dados da subárvore depois que tamanho/dono do bloco em index foram alterados
+    public void refresh(int index) {
+        checkIndex(index);
+        refresh(root, index);
+    }
+
+    // Posição do nó na árvore, localizado pelo endereço inicial; -1 se não estiver na árvore
+    public int indexOf(int node) {
+        int index = indexOfStart(start[node]);
+        return index >= 0 && nodeAt(index) == node ? index : -1;
+    }
+
+    // Posição do bloco que começa em startKb, ou -1
+    public int indexOfStart(int startKb) {
+        int n = root;
+        int base = 0;
+        while (n != NIL) {
+            inspected++;
+            int leftCount = count(left[n]);
+            if (startKb == start[n]) return base + leftCount;
+            if (startKb < start[n]) {
+                n = left[n];
+            } else {
+                base += leftCount + 1;
+                n = right[n];
+            }
+        }
+        return -1;
+    }
+
+    // Posição do bloco que contém o endereço kb (o último que começa em kb ou antes), ou -1
+    public int indexAtAddress(int kb) {
+        int n = root;
+        int base = 0;
+        int found = -1;
+        while (n != NIL) {
+            int leftCount = count(left[n]);
+            if (start[n] <= kb) {
+                found = base + leftCount;
+                base += leftCount + 1;
+                n = right[n];
+            } else {
+                n = left[n];
+            }
+        }
+        return found;
+    }
+
+    // Maior bloco livre da memória em KB (0 se não houver), lido da raiz em O(1)
+    public int largestFreeKb() {
+        return root == NIL ? 0 : maxFree[root];
+    }
+
+    // Total acumulado de nós visitados por firstFit/indexOfStart
+    public long inspectedNodes() {
+        return inspected;
+    }
+
+    // Menor índice >= fromIndex de um bloco livre com pelo menos requiredKb, ou -1
+    public int firstFit(int requiredKb, int fromIndex) {
+        return firstFit(root, 0, fromIndex, requiredKb);
+    }
+
+    // Visita os nós em ordem de endereço
+    public void forEach(IntConsumer action) {
+        forEach(root, action);
+    }
+
+    private void forEach(int n, IntConsumer action) {
+        while (n != NIL) {
+            forEach(left[n], action);
+            action.accept(n);
+            n = right[n];
+        }
+    }
+
+    private int firstFit(int n, int offset, int fromIndex, int requiredKb) {
+        // a poda pelo maior livre da subárvore evita descer em regiões onde nada cabe
+        if (n == NIL) return -1;
+        inspected++;
+        if (maxFree[n] < requiredKb) return -1;
+        int index = offset + count(left[n]);
+        if (fromIndex < index) {
+            int found = firstFit(left[n], offset, fromIndex, requiredKb);
+            if (found >= 0) return found;
+        }
+        if (index >= fromIndex && owner[n] == FREE && size[n] >= requiredKb) return index;
+        return firstFit(right[n], index + 1, fromIndex, requiredKb);
+    }
+
+    private void refresh(int n, int index) {
+        int leftCount = count(left[n]);
+        if (index < leftCount) refresh(left[n], index);
+        else if (index > leftCount) refresh(right[n], index - leftCount - 1);
+        pull(n);
+    }
+
+    // Divide t nas posições [0, k) (splitLeft) e [k, n) (splitRight)
+    private void split(int t, int k) {
+        if (t == NIL) {
+            splitLeft = splitRight = NIL;
+            return;
+        }
+        int leftCount = count(left[t]);
+        if (k <= leftCount) {
+            split(left[t], k);
+            left[t] = splitRight;
+            pull(t);
+            splitRight = t;
+        } else {
+            split(right[t], k - leftCount - 1);
+            right[t] = splitLeft;
+            pull(t);
+            splitLeft = t;
+        }
+    }
+
+    private int merge(int a, int b) {
+        if (a == NIL) return b;
+        if (b == NIL) return a;
+        if (priority[a] > priority[b]) {
+            right[a] = merge(right[a], b);
+            pull(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        pull(b);
+        return b;
+    }
+
+    private void pull(int n) {
+        int l = left[n], r = right[n];
+        count[n] = 1 + count(l) + count(r);
+        int own = owner[n] == FREE ? size[n] : 0;
+        maxFree[n] = Math.max(own, Math.max(l == NIL ? 0 : maxFree[l], r == NIL ? 0 : maxFree[r]));
+    }
+
+    private int count(int n) {
+        return n == NIL ? 0 : count[n];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+
+    private void allocateArrays(int capacity) {
+        start = new int[capacity];
+        size = new int[capacity];
+        owner = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        priority = new int[capacity];
+        count = new int[capacity];
+        maxFree = new int[capacity];
+    }
+
+    private void grow() {
+        int capacity = start.length * 2;
+        start = Arrays.copyOf(start, capacity);
+        size = Arrays.copyOf(size, capacity);
+        owner = Arrays.copyOf(owner, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        count = Arrays.copyOf(count, capacity);
+        maxFree = Arrays.copyOf(maxFree, capacity);
+    }
+
+    // xorshift: prioridades pseudoaleatórias e reprodutíveis
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+}
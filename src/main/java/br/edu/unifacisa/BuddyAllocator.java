@@ -0,0 +1,168 @@
+package br.edu.unifacisa;
+
+import java.util.Arrays;
+
+// Buddy binário: a memória é dividida em blocos de 2^k unidades. Um pedido usa o menor bloco livre de ordem
+// suficiente, dividindo-o ao meio até a ordem pedida; na liberação o bloco se junta ao seu "buddy"
+// (endereço ^ 2^k) enquanto ele também estiver livre. Listas livres por ordem + mapa de bits dos inícios
+// livres dão divisão e junção em O(log N), sem percorrer blocos.
+public class BuddyAllocator implements AllocatorEngine {
+    private static final int NIL = -1;
+
+    private int unitKb;
+    private int units;
+    private int maxOrder;
+
+    private int[] freeHead;       // por ordem: primeira unidade da lista de livres
+    private long nonEmptyOrders;  // bit k ligado quando a lista da ordem k tem blocos
+    private int[] next;           // por unidade inicial: encadeamento das listas de livres
+    private int[] prev;
+    private byte[] order;         // por unidade inicial: ordem do bloco que começa nela
+    private long[] freeBits;      // por unidade: 1 se é início de um bloco livre
+    private int freeUnits;
+    private int freeBlocks;
+    private long splits, coalesces;
+
+    @Override
+    public void reset(int totalKb, int unitKb) {
+        this.unitKb = unitKb;
+        this.units = totalKb / unitKb;
+        this.maxOrder = 31 - Integer.numberOfLeadingZeros(units);
+        freeHead = new int[maxOrder + 1];
+        Arrays.fill(freeHead, NIL);
+        nonEmptyOrders = 0;
+        next = new int[units];
+        prev = new int[units];
+        order = new byte[units];
+        freeBits = new long[(units + 63) >>> 6];
+        freeUnits = 0;
+        freeBlocks = 0;
+        splits = 0;
+        coalesces = 0;
+
+        // memória que não é potência de 2 vira vários blocos alinhados (decomposição binária)
+        int unit = 0;
+        for (int k = maxOrder; k >= 0; k--) {
+            if ((units & (1 << k)) != 0) {
+                pushFree(unit, k);
+                unit += 1 << k;
+            }
+        }
+    }
+
+    @Override
+    public int allocate(int requiredKb) {
+        int neededUnits = (requiredKb + unitKb - 1) / unitKb;
+        int k = orderFor(neededUnits);
+        if (k > maxOrder) return -1;
+        long candidates = nonEmptyOrders & (-1L << k);
+        if (candidates == 0) return -1;
+
+        // menor ordem com bloco livre, depois divide até a ordem pedida
+        int j = Long.numberOfTrailingZeros(candidates);
+        int unit = freeHead[j];
+        removeFree(unit, j);
+        while (j > k) {
+            j--;
+            pushFree(unit + (1 << j), j);
+            splits++;
+        }
+        order[unit] = (byte) k;
+        return unit * unitKb;
+    }
+
+    @Override
+    public int release(int startKb) {
+        int unit = startKb / unitKb;
+        if (isFreeStart(unit)) throw new IllegalArgumentException("Bloco em " + startKb + "KB já está livre");
+        int k = order[unit];
+        int releasedKb = (1 << k) * unitKb;
+
+        // junta com o buddy enquanto ele estiver livre e inteiro na mesma ordem
+        while (k < maxOrder) {
+            int buddy = unit ^ (1 << k);
+            if (buddy >= units || !isFreeStart(buddy) || order[buddy] != k) break;
+            removeFree(buddy, k);
+            unit = Math.min(unit, buddy);
+            k++;
+            coalesces++;
+        }
+        pushFree(unit, k);
+        return releasedKb;
+    }
+
+    @Override
+    public int blockSizeKb(int startKb) {
+        return (1 << order[startKb / unitKb]) * unitKb;
+    }
+
+    @Override
+    public int freeKb() {
+        return freeUnits * unitKb;
+    }
+
+    @Override
+    public int freeBlockCount() {
+        return freeBlocks;
+    }
+
+    @Override
+    public long splitCount() {
+        return splits;
+    }
+
+    @Override
+    public long coalesceCount() {
+        return coalesces;
+    }
+
+    @Override
+    public int largestFreeKb() {
+        if (nonEmptyOrders == 0) return 0;
+        return (1 << (63 - Long.numberOfLeadingZeros(nonEmptyOrders))) * unitKb;
+    }
+
+    // Maior bloco da decomposição inicial (a maior potência de 2 que cabe)
+    @Override
+    public int maxBlockKb() {
+        return (1 << maxOrder) * unitKb;
+    }
+
+    @Override
+    public String getName() {
+        return "Buddy";
+    }
+
+    // Menor k com 2^k >= n
+    private static int orderFor(int n) {
+        return n <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(n - 1);
+    }
+
+    private void pushFree(int unit, int k) {
+        order[unit] = (byte) k;
+        int head = freeHead[k];
+        next[unit] = head;
+        prev[unit] = NIL;
+        if (head != NIL) prev[head] = unit;
+        freeHead[k] = unit;
+        nonEmptyOrders |= 1L << k;
+        freeBits[unit >>> 6] |= 1L << unit;
+        freeUnits += 1 << k;
+        freeBlocks++;
+    }
+
+    private void removeFree(int unit, int k) {
+        int p = prev[unit], n = next[unit];
+        if (p != NIL) next[p] = n;
+        else freeHead[k] = n;
+        if (n != NIL) prev[n] = p;
+        if (freeHead[k] == NIL) nonEmptyOrders &= ~(1L << k);
+        freeBits[unit >>> 6] &= ~(1L << unit);
+        freeUnits -= 1 << k;
+        freeBlocks--;
+    }
+
+    private boolean isFreeStart(int unit) {
+        return (freeBits[unit >>> 6] & (1L << unit)) != 0;
+    }
+}
@@ -0,0 +1,136 @@
+package br.edu.unifacisa;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Compara a junção imediata dos blocos livres com a junção adiada em cargas em rajadas: a cada rodada --burst
+// processos vivos são liberados de uma vez e o mesmo número de processos novos é alocado em seguida, com
+// tamanhos tirados de poucas classes (como pedidos reais, que se repetem). Para cada estratégia roda três modos
+// sobre a mesma sequência:
+//  - imediato: free()/allocate() um a um, juntando a cada liberação
+//  - lote: freeAll()/allocateAll(), juntando uma vez no fim de cada freeAll
+//  - adiado: freeAll()/allocateAll() com setDeferredCoalescing(--threshold) (no Next Fit, igual ao lote: ele junta
+//    na hora porque adiar só aumentava as divisões)
+// e imprime vazão, ganho sobre o imediato, divisões, junções e falhas.
+//
+// Uso: java -cp out br.edu.unifacisa.CoalescingBenchmark [--algos=first,next,best] [--memory=KB] [--unit=KB]
+//      [--live=N] [--burst=N] [--rounds=N] [--sizes=DIST] [--threshold=N] [--repeat=N] [--seed=N]
+public class CoalescingBenchmark {
+
+    private static final String[] MODES = {"imediato", "lote", "adiado"};
+
+    // Carga pré-gerada: ids e tamanhos iniciais e, por rodada, quem sai e quem entra
+    private static final class Script {
+        final String[] initialIds;
+        final int[] initialSizes;
+        final String[][] frees;
+        final String[][] allocs;
+        final int[][] allocSizes;
+
+        Script(long seed, int live, int burst, int rounds, Distribution sizes) {
+            SplittableRandom random = new SplittableRandom(seed);
+            String[] slots = new String[live];
+            initialIds = new String[live];
+            initialSizes = new int[live];
+            int next = 0;
+            for (int i = 0; i < live; i++) {
+                slots[i] = initialIds[i] = "P" + next++;
+                initialSizes[i] = sizes.sample(random);
+            }
+            frees = new String[rounds][burst];
+            allocs = new String[rounds][burst];
+            allocSizes = new int[rounds][burst];
+            for (int r = 0; r < rounds; r++) {
+                // rajada: burst vagas distintas liberadas e depois ocupadas por processos novos
+                for (int k = 0; k < burst; k++) {
+                    int j = k + random.nextInt(live - k);
+                    String t = slots[j];
+                    slots[j] = slots[k];
+                    slots[k] = t;
+                    frees[r][k] = t;
+                    slots[k] = allocs[r][k] = "P" + next++;
+                    allocSizes[r][k] = sizes.sample(random);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        String[] algos = {"first", "next", "best"};
+        int memoryKb = 1 << 20;
+        int unitKb = 4;
+        int live = 20_000;
+        int burst = 2_000;
+        int rounds = 200;
+        Distribution sizes = Distribution.empirical(new int[]{8, 16, 32, 64, 128}, new long[]{40, 25, 20, 10, 5});
+        int threshold = 4_096;
+        int repeat = 3;
+        long seed = 42;
+
+        for (String arg : args) {
+            String value = arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : "";
+            if (arg.startsWith("--algos=")) algos = value.split(",");
+            else if (arg.startsWith("--memory=")) memoryKb = Integer.parseInt(value);
+            else if (arg.startsWith("--unit=")) unitKb = Integer.parseInt(value);
+            else if (arg.startsWith("--live=")) live = Integer.parseInt(value);
+            else if (arg.startsWith("--burst=")) burst = Integer.parseInt(value);
+            else if (arg.startsWith("--rounds=")) rounds = Integer.parseInt(value);
+            else if (arg.startsWith("--sizes=")) sizes = Distribution.parse(value);
+            else if (arg.startsWith("--threshold=")) threshold = Integer.parseInt(value);
+            else if (arg.startsWith("--repeat=")) repeat = Integer.parseInt(value);
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(value);
+            else throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+        }
+        if (burst > live) throw new IllegalArgumentException("A rajada não pode ser maior que os processos vivos");
+
+        Script script = new Script(seed, live, burst, rounds, sizes);
+        long operations = 2L * burst * rounds;
+        System.out.printf(Locale.ROOT, "Memória: %dKB | %d vivos | rajadas de %d em %d rodadas (%d operações) | limite da junção adiada: %d%n",
+                memoryKb, live, burst, rounds, operations, threshold);
+        System.out.printf(Locale.ROOT, "%-10s %-9s %12s %8s %10s %10s %8s%n",
+                "estratégia", "modo", "ops/s", "ganho", "divisões", "junções", "falhas");
+        for (String algo : algos) {
+            double immediate = 0;
+            for (int mode = 0; mode < MODES.length; mode++) {
+                // a melhor de repeat execuções, para tirar o ruído do JIT e do GC
+                long best = Long.MAX_VALUE;
+                MemoryManager manager = null;
+                long failed = 0;
+                for (int rep = 0; rep < repeat; rep++) {
+                    manager = new MemoryManager(memoryKb, unitKb, new FirstFit());
+                    Strategies.apply(manager, algo);
+                    if (mode == 2) manager.setDeferredCoalescing(threshold);
+                    manager.allocateAll(script.initialIds, script.initialSizes, null);
+                    long start = System.nanoTime();
+                    failed = run(manager, script, mode);
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                double opsPerSecond = operations * 1e9 / best;
+                if (mode == 0) immediate = opsPerSecond;
+                System.out.printf(Locale.ROOT, "%-10s %-9s %12.0f %+7.1f%% %10d %10d %8d%n",
+                        manager.getAlgorithmName(), MODES[mode], opsPerSecond, (opsPerSecond / immediate - 1) * 100,
+                        manager.getSplits(), manager.getCoalesces(), failed);
+            }
+        }
+    }
+
+    // Aplica todas as rodadas e devolve quantas alocações falharam
+    private static long run(MemoryManager manager, Script script, int mode) {
+        long failed = 0;
+        for (int r = 0; r < script.frees.length; r++) {
+            String[] frees = script.frees[r];
+            String[] allocs = script.allocs[r];
+            int[] sizes = script.allocSizes[r];
+            if (mode == 0) {
+                for (String processId : frees) manager.free(processId);
+                for (int k = 0; k < allocs.length; k++) {
+                    if (!manager.allocate(allocs[k], sizes[k])) failed++;
+                }
+            } else {
+                manager.freeAll(frees);
+                failed += allocs.length - manager.allocateAll(allocs, sizes, null);
+            }
+        }
+        return failed;
+    }
+}
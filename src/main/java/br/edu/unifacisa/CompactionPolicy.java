@@ -0,0 +1,83 @@
+package br.edu.unifacisa;
+
+import java.util.Locale;
+
+// Quando o MemoryManager compacta a memória (ver MemoryManager.setCompaction). Compactar desliza os blocos
+// ocupados para o início, juntando o espaço livre no fim; cada KB deslocado conta como custo de cópia.
+//
+// - NONE: nunca compacta sozinho (compact() ainda pode ser chamado à mão)
+// - STOP_THE_WORLD: quando uma alocação falha mas a memória livre total comportaria o pedido, compacta tudo e
+//   tenta de novo
+// - INCREMENTAL: cada operação ganha budgetKb de crédito para deslocar blocos; um bloco só anda quando o
+//   crédito acumulado cobre o tamanho dele, então o custo fica espalhado entre as operações
+// - THRESHOLD: compacta tudo depois da operação que deixar a fragmentação externa acima de threshold
+//
+// Só vale para as estratégias sobre a BlockTree; os motores próprios (Buddy, TLSF, Bitmap) não relocam blocos.
+public final class CompactionPolicy {
+
+    public enum Mode { NONE, STOP_THE_WORLD, INCREMENTAL, THRESHOLD }
+
+    private static final CompactionPolicy NONE = new CompactionPolicy(Mode.NONE, 0, 0);
+
+    public final Mode mode;
+    public final int budgetKb;        // INCREMENTAL: KB de crédito por operação
+    public final double threshold;    // THRESHOLD: fragmentação externa (0..1) que dispara a compactação
+
+    private CompactionPolicy(Mode mode, int budgetKb, double threshold) {
+        this.mode = mode;
+        this.budgetKb = budgetKb;
+        this.threshold = threshold;
+    }
+
+    public static CompactionPolicy none() {
+        return NONE;
+    }
+
+    public static CompactionPolicy stopTheWorld() {
+        return new CompactionPolicy(Mode.STOP_THE_WORLD, 0, 0);
+    }
+
+    public static CompactionPolicy incremental(int budgetKb) {
+        if (budgetKb <= 0) throw new IllegalArgumentException("Orçamento deve ser positivo: " + budgetKb);
+        return new CompactionPolicy(Mode.INCREMENTAL, budgetKb, 0);
+    }
+
+    public static CompactionPolicy threshold(double fragmentation) {
+        if (fragmentation < 0 || fragmentation >= 1) {
+            throw new IllegalArgumentException("Limite de fragmentação deve estar em [0, 1): " + fragmentation);
+        }
+        return new CompactionPolicy(Mode.THRESHOLD, 0, fragmentation);
+    }
+
+    // Lê a forma textual usada na linha de comando: none | full | incremental:KB | threshold:FRAÇÃO
+    public static CompactionPolicy parse(String spec) {
+        String[] p = spec.split(":");
+        try {
+            switch (p[0].toLowerCase(Locale.ROOT)) {
+                case "none":
+                    return none();
+                case "full":
+                case "stw":
+                    return stopTheWorld();
+                case "incremental":
+                    return incremental(Integer.parseInt(p[1]));
+                case "threshold":
+                    return threshold(Double.parseDouble(p[1]));
+                default:
+                    throw new IllegalArgumentException("Compactação desconhecida: " + spec);
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Compactação mal formada: " + spec, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return switch (mode) {
+            case NONE -> "sem compactação";
+            case STOP_THE_WORLD -> "compactação total na falha";
+            case INCREMENTAL -> "compactação incremental (" + budgetKb + "KB/operação)";
+            case THRESHOLD -> String.format(Locale.ROOT, "compactação com fragmentação > %.0f%%", threshold * 100);
+        };
+    }
+}
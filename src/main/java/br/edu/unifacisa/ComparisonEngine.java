@@ -0,0 +1,190 @@
+package br.edu.unifacisa;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Compara estratégias em várias sementes e tamanhos de memória ao mesmo tempo.
+// Cada combinação (estratégia, memória, semente) roda em um MemoryManager próprio dentro de um ForkJoinPool;
+// a carga é sorteada sob demanda por um WorkloadGenerator com a semente do cenário, então todas as estratégias
+// recebem a mesma sequência de operações sem compartilhar estado entre threads (escala com a quantidade de núcleos)
+// e a memória de cada tarefa não cresce com --ops.
+//
+// Uso: java -cp out br.edu.unifacisa.ComparisonEngine [--algos=first,next,best,buddy,tlsf,bitmap] [--memory=KB,KB]
+//      [--unit=KB] [--seeds=N] [--ops=N] [--live=N] [--max-size=KB] [--threads=N]
+//      [--compaction=none|full|incremental:KB|threshold:FRAÇÃO]   (mesma política em todas as estratégias)
+public class ComparisonEngine {
+
+    // Uma combinação a executar
+    public static class Scenario {
+        public final String strategy;
+        public final int memoryKb;
+        public final long seed;
+
+        public Scenario(String strategy, int memoryKb, long seed) {
+            this.strategy = strategy;
+            this.memoryKb = memoryKb;
+            this.seed = seed;
+        }
+    }
+
+    // Agregado de todas as sementes de uma estratégia em um tamanho de memória
+    public static class Summary {
+        public final String strategy;
+        public final int memoryKb;
+        private int runs;
+        private double successSum, successMin = 1, successMax = 0;
+        private double fragmentationSum;
+        private long relocatedKb;
+        private long operations;
+        private long elapsedNanos;
+
+        Summary(String strategy, int memoryKb) {
+            this.strategy = strategy;
+            this.memoryKb = memoryKb;
+        }
+
+        void add(HeadlessRunner.Result r) {
+            double success = r.allocations == 0 ? 1.0 : 1.0 - (double) r.failedAllocations / r.allocations;
+            runs++;
+            successSum += success;
+            successMin = Math.min(successMin, success);
+            successMax = Math.max(successMax, success);
+            fragmentationSum += r.externalFragmentation;
+            relocatedKb += r.relocatedKb;
+            operations += r.operations;
+            elapsedNanos += r.elapsedNanos;
+        }
+
+        public int runs() {
+            return runs;
+        }
+
+        public double meanSuccessRate() {
+            return runs == 0 ? 0 : successSum / runs;
+        }
+
+        public double meanExternalFragmentation() {
+            return runs == 0 ? 0 : fragmentationSum / runs;
+        }
+
+        // KB copiados pela compactação por execução
+        public double meanRelocatedKb() {
+            return runs == 0 ? 0 : (double) relocatedKb / runs;
+        }
+
+        // Vazão de uma thread: operações pelo tempo somado das execuções
+        public double opsPerSecond() {
+            return elapsedNanos == 0 ? 0 : operations * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-10s %12d %6d %8.2f%% %8.2f%% %8.2f%% %9.1f%% %14.0f %12.0f",
+                    strategy, memoryKb, runs, meanSuccessRate() * 100, successMin * 100, successMax * 100,
+                    meanExternalFragmentation() * 100, meanRelocatedKb(), opsPerSecond());
+        }
+    }
+
+    private final int unitKb;
+    private final long operations;
+    private final int maxLive;
+    private final int maxSizeKb; // <= 0: calculado pela memória de cada cenário
+    private final CompactionPolicy compaction;
+
+    public ComparisonEngine(int unitKb, long operations, int maxLive, int maxSizeKb) {
+        this(unitKb, operations, maxLive, maxSizeKb, CompactionPolicy.none());
+    }
+
+    public ComparisonEngine(int unitKb, long operations, int maxLive, int maxSizeKb, CompactionPolicy compaction) {
+        this.unitKb = unitKb;
+        this.operations = operations;
+        this.maxLive = maxLive;
+        this.maxSizeKb = maxSizeKb;
+        this.compaction = compaction;
+    }
+
+    // Executa um cenário do início ao fim, isolado dos demais
+    public HeadlessRunner.Result run(Scenario scenario) {
+        MemoryManager manager = new MemoryManager(scenario.memoryKb, unitKb, new FirstFit());
+        Strategies.apply(manager, scenario.strategy);
+        manager.setCompaction(compaction);
+        int maxSize = maxSizeKb > 0 ? maxSizeKb : Math.max(1, scenario.memoryKb / Math.max(1, maxLive));
+        WorkloadGenerator generator = new WorkloadGenerator(scenario.seed, operations).targetLive(maxLive)
+                .sizes(Distribution.uniform(1, maxSize));
+        return HeadlessRunner.run(manager, new Workload(generator));
+    }
+
+    // Roda todos os cenários no pool e agrega por (estratégia, memória), na ordem dos cenários
+    public List<Summary> compare(List<Scenario> scenarios, ForkJoinPool pool) throws InterruptedException {
+        List<Callable<HeadlessRunner.Result>> tasks = new ArrayList<>(scenarios.size());
+        for (Scenario s : scenarios) tasks.add(() -> run(s));
+        List<Future<HeadlessRunner.Result>> futures = pool.invokeAll(tasks);
+
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        for (int i = 0; i < scenarios.size(); i++) {
+            Scenario s = scenarios.get(i);
+            HeadlessRunner.Result result;
+            try {
+                result = futures.get(i).get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Falha no cenário " + s.strategy + "/" + s.memoryKb + "KB/semente " + s.seed, e.getCause());
+            }
+            summaries.computeIfAbsent(s.strategy + "@" + s.memoryKb, k -> new Summary(s.strategy, s.memoryKb)).add(result);
+        }
+        return new ArrayList<>(summaries.values());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String[] algos = {"first", "next", "best", "buddy", "tlsf", "bitmap"};
+        int[] memories = {MemoryManager.DEFAULT_TOTAL_KB};
+        int unitKb = MemoryManager.DEFAULT_UNIT_KB;
+        int seeds = 10;
+        long ops = 100_000;
+        int live = 1_000;
+        int maxSizeKb = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        CompactionPolicy compaction = CompactionPolicy.none();
+
+        for (String arg : args) {
+            String value = arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : "";
+            if (arg.startsWith("--algos=")) algos = value.split(",");
+            else if (arg.startsWith("--memory=")) memories = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+            else if (arg.startsWith("--unit=")) unitKb = Integer.parseInt(value);
+            else if (arg.startsWith("--seeds=")) seeds = Integer.parseInt(value);
+            else if (arg.startsWith("--ops=")) ops = Long.parseLong(value);
+            else if (arg.startsWith("--live=")) live = Integer.parseInt(value);
+            else if (arg.startsWith("--max-size=")) maxSizeKb = Integer.parseInt(value);
+            else if (arg.startsWith("--threads=")) threads = Integer.parseInt(value);
+            else if (arg.startsWith("--compaction=")) compaction = CompactionPolicy.parse(value);
+            else throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+        }
+
+        List<Scenario> scenarios = new ArrayList<>();
+        for (String algo : algos) {
+            for (int memoryKb : memories) {
+                for (long seed = 1; seed <= seeds; seed++) scenarios.add(new Scenario(algo, memoryKb, seed));
+            }
+        }
+
+        ComparisonEngine engine = new ComparisonEngine(unitKb, ops, live, maxSizeKb, compaction);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        List<Summary> summaries = engine.compare(scenarios, pool);
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        System.out.println("Compactação: " + compaction);
+        System.out.printf(Locale.ROOT, "%-10s %12s %6s %9s %9s %9s %10s %14s %12s%n",
+                "estratégia", "memória(KB)", "runs", "sucesso", "mín", "máx", "frag.ext", "realocado(KB)", "ops/s/thread");
+        long totalOps = 0;
+        for (Summary s : summaries) {
+            System.out.println(s);
+            totalOps += (long) s.runs() * ops;
+        }
+        System.out.printf(Locale.ROOT, "%d cenários, %d operações em %.2fs com %d threads (%.0f ops/s no total)%n",
+                scenarios.size(), totalOps, elapsed / 1e9, threads, totalOps * 1e9 / elapsed);
+    }
+}
@@ -0,0 +1,193 @@
+package br.edu.unifacisa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+// Mede a vazão e a contenção do ConcurrentMemoryManager conforme cresce a quantidade de threads, comparando
+// N arenas com uma arena só (o MemoryManager atrás de um lock global).
+//
+// Cada thread consome o seu subfluxo do WorkloadGenerator (split determinístico: mesma carga em todos os modos).
+// Uma fração das liberações (--remote-free) é entregue a outra thread, que libera o processo na próxima
+// iteração, para exercitar liberações entre arenas como em um produtor/consumidor.
+// Com --lockfree cada quantidade de threads também roda no modo sem locks (BitmapAllocator com CAS).
+//
+// Uso: java -cp out br.edu.unifacisa.ConcurrencyBenchmark [--algo=first|next|best|buddy|tlsf|bitmap] [--memory=KB]
+//      [--unit=KB] [--threads=1,2,4,8] [--arenas=N (padrão: uma por thread)] [--ops=N por thread]
+//      [--live=N por thread] [--max-size=KB] [--remote-free=0.1] [--seed=N] [--lockfree]
+public class ConcurrencyBenchmark {
+
+    // Resultado de uma rodada
+    public static class Result {
+        public final int threads;
+        public final int arenas;
+        public final long operations;
+        public final long elapsedNanos;
+        public final long lockAcquisitions;
+        public final long contended;
+        public final long crossArenaFrees;
+        public final long fallbackAllocations;
+        public final long failedAllocations;
+
+        Result(int threads, int arenas, long operations, long elapsedNanos, ConcurrentMemoryManager manager, long failed) {
+            this.threads = threads;
+            this.arenas = arenas;
+            this.operations = operations;
+            this.elapsedNanos = elapsedNanos;
+            this.lockAcquisitions = manager.getLockAcquisitions();
+            this.contended = manager.getContendedAcquisitions();
+            this.crossArenaFrees = manager.getCrossArenaFrees();
+            this.fallbackAllocations = manager.getFallbackAllocations();
+            this.failedAllocations = failed;
+        }
+
+        public double opsPerSecond() {
+            return elapsedNanos == 0 ? 0 : operations * 1e9 / elapsedNanos;
+        }
+
+        public double contentionRate() {
+            return lockAcquisitions == 0 ? 0 : (double) contended / lockAcquisitions;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%7d %7s %14.0f %10.2f%% %12d %12d %10d",
+                    threads, arenas == 0 ? "CAS" : String.valueOf(arenas), opsPerSecond(), contentionRate() * 100, crossArenaFrees, fallbackAllocations, failedAllocations);
+        }
+    }
+
+    private final String strategy;
+    private final int memoryKb;
+    private final int unitKb;
+    private final long opsPerThread;
+    private final int livePerThread;
+    private final int maxSizeKb;
+    private final double remoteFree;
+    private final long seed;
+
+    public ConcurrencyBenchmark(String strategy, int memoryKb, int unitKb, long opsPerThread, int livePerThread,
+                                int maxSizeKb, double remoteFree, long seed) {
+        this.strategy = strategy;
+        this.memoryKb = memoryKb;
+        this.unitKb = unitKb;
+        this.opsPerThread = opsPerThread;
+        this.livePerThread = livePerThread;
+        this.maxSizeKb = maxSizeKb;
+        this.remoteFree = remoteFree;
+        this.seed = seed;
+    }
+
+    // arenas = 0: modo sem locks
+    public Result run(int threads, int arenas) throws InterruptedException {
+        ConcurrentMemoryManager manager = arenas == 0
+                ? ConcurrentMemoryManager.lockFree(memoryKb, unitKb)
+                : new ConcurrentMemoryManager(memoryKb, unitKb, arenas, strategy);
+        WorkloadGenerator root = new WorkloadGenerator(seed, opsPerThread * threads)
+                .targetLive(livePerThread).sizes(Distribution.uniform(1, maxSizeKb));
+        List<WorkloadGenerator> streams = new ArrayList<>();
+        for (int t = 0; t < threads - 1; t++) streams.add(root.split(opsPerThread));
+        streams.add(root);
+
+        List<ConcurrentLinkedQueue<String>> inboxes = new ArrayList<>();
+        for (int t = 0; t < threads; t++) inboxes.add(new ConcurrentLinkedQueue<>());
+        long[] failed = new long[threads];
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch generated = new CountDownLatch(threads);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            workers[t] = new Thread(() -> {
+                if (arenas > 0) manager.bind(id % arenas);
+                SplittableRandom random = new SplittableRandom(seed * 31 + id);
+                ConcurrentLinkedQueue<String> inbox = inboxes.get(id);
+                WorkloadGenerator stream = streams.get(id);
+                ready.countDown();
+                await(start);
+                while (stream.hasNext()) {
+                    String remote;
+                    while ((remote = inbox.poll()) != null) manager.free(remote);
+                    Operation op = stream.next();
+                    if (op.type == Operation.Type.ALLOC) {
+                        if (!manager.allocate(op.processId, op.sizeKb)) failed[id]++;
+                    } else if (threads > 1 && random.nextDouble() < remoteFree) {
+                        int other = (id + 1 + random.nextInt(threads - 1)) % threads;
+                        inboxes.get(other).add(op.processId);
+                    } else {
+                        manager.free(op.processId);
+                    }
+                }
+                // só esvazia a caixa de entrada depois que ninguém mais pode mandar liberações
+                generated.countDown();
+                await(generated);
+                String remote;
+                while ((remote = inbox.poll()) != null) manager.free(remote);
+            }, "arena-worker-" + t);
+            workers[t].start();
+        }
+        ready.await();
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread w : workers) w.join();
+        long elapsed = System.nanoTime() - begin;
+        return new Result(threads, arenas, opsPerThread * threads, elapsed, manager, Arrays.stream(failed).sum());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String algo = "first";
+        int memoryKb = 1 << 20;
+        int unitKb = 4;
+        int[] threadCounts = {1, 2, 4, 8};
+        int arenas = 0;
+        long ops = 200_000;
+        int live = 1_000;
+        int maxSizeKb = 0;
+        double remoteFree = 0.1;
+        long seed = 42;
+        boolean lockFree = false;
+
+        for (String arg : args) {
+            String value = arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : "";
+            if (arg.startsWith("--algo=")) algo = value;
+            else if (arg.startsWith("--memory=")) memoryKb = Integer.parseInt(value);
+            else if (arg.startsWith("--unit=")) unitKb = Integer.parseInt(value);
+            else if (arg.startsWith("--threads=")) threadCounts = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+            else if (arg.startsWith("--arenas=")) arenas = Integer.parseInt(value);
+            else if (arg.startsWith("--ops=")) ops = Long.parseLong(value);
+            else if (arg.startsWith("--live=")) live = Integer.parseInt(value);
+            else if (arg.startsWith("--max-size=")) maxSizeKb = Integer.parseInt(value);
+            else if (arg.startsWith("--remote-free=")) remoteFree = Double.parseDouble(value);
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(value);
+            else if (arg.equals("--lockfree")) lockFree = true;
+            else throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+        }
+        int maxThreads = Arrays.stream(threadCounts).max().orElse(1);
+        // por padrão a carga viva de todas as threads ocupa cerca de metade da memória
+        if (maxSizeKb <= 0) maxSizeKb = Math.max(1, memoryKb / Math.max(1, live * maxThreads));
+
+        ConcurrencyBenchmark bench = new ConcurrencyBenchmark(algo, memoryKb, unitKb, ops, live, maxSizeKb, remoteFree, seed);
+        bench.run(maxThreads, 1); // aquecimento do JIT, fora da tabela
+        System.out.println("Algoritmo: " + algo + " | memória: " + memoryKb + "KB | " + ops + " operações por thread");
+        System.out.printf(Locale.ROOT, "%7s %7s %14s %11s %12s %12s %10s%n",
+                "threads", "arenas", "ops/s", "contenção", "liber.remota", "fora da arena", "falhas");
+        for (int threads : threadCounts) {
+            System.out.println(bench.run(threads, 1));
+            int n = arenas > 0 ? arenas : threads;
+            if (n > 1) System.out.println(bench.run(threads, n));
+            if (lockFree) System.out.println(bench.run(threads, 0));
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package br.edu.unifacisa;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Modo concorrente no estilo jemalloc/tcmalloc: a memória é dividida em N arenas, cada uma um MemoryManager
+// próprio protegido pelo seu lock. Cada thread fica associada a uma arena (distribuídas em rodízio na primeira
+// alocação, ou escolhida com bind()) e aloca nela; se a arena não comporta o pedido, tenta as outras em ordem.
+//
+// Um processo fica na arena onde foi alocado pela primeira vez. free() pode vir de qualquer thread: o mapa
+// processo -> arena leva a liberação à arena dona, travando o lock dela (liberação entre arenas).
+// Operações sobre o mesmo processo precisam estar ordenadas entre si pelo chamador, como em um trace.
+//
+// Com 1 arena o resultado é o MemoryManager original atrás de um único lock global, a base de comparação.
+// lockFree() cria o modo sem locks: um único BitmapAllocator compartilhado, que reserva unidades com CAS, e um
+// mapa concorrente processo -> blocos no lugar do ProcessIndex.
+public class ConcurrentMemoryManager {
+
+    private static final class Arena {
+        final MemoryManager manager;
+        final ReentrantLock lock = new ReentrantLock();
+
+        Arena(MemoryManager manager) {
+            this.manager = manager;
+        }
+    }
+
+    private final Arena[] arenas;
+    private final ConcurrentHashMap<String, Integer> arenaOf = new ConcurrentHashMap<>();
+    private final AtomicInteger nextBinding = new AtomicInteger();
+    private final ThreadLocal<Integer> home;
+    // modo sem locks (null nos modos com arenas)
+    private final BitmapAllocator lockFree;
+    private final ConcurrentHashMap<String, int[]> lockFreeBlocks;
+
+    // estatísticas de concorrência
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contended = new LongAdder();      // lock já estava com outra thread
+    private final LongAdder crossArenaFrees = new LongAdder();
+    private final LongAdder fallbackAllocations = new LongAdder(); // alocou fora da arena da thread
+
+    // strategy: nome aceito por Strategies.apply (ex.: "first", "tlsf"); arenas: quantidade de partições
+    public ConcurrentMemoryManager(int totalKb, int unitKb, int arenaCount, String strategy) {
+        if (arenaCount < 1) throw new IllegalArgumentException("Quantidade de arenas deve ser positiva: " + arenaCount);
+        if (unitKb <= 0 || totalKb <= 0 || totalKb % unitKb != 0) {
+            throw new IllegalArgumentException("Memória de " + totalKb + "KB não é múltiplo positivo da unidade de " + unitKb + "KB");
+        }
+        int units = totalKb / unitKb;
+        if (units < arenaCount) throw new IllegalArgumentException("Menos unidades (" + units + ") que arenas (" + arenaCount + ")");
+        this.lockFree = null;
+        this.lockFreeBlocks = null;
+        arenas = new Arena[arenaCount];
+        for (int i = 0; i < arenaCount; i++) {
+            // as primeiras arenas ficam com uma unidade a mais quando a divisão não é exata
+            int arenaUnits = units / arenaCount + (i < units % arenaCount ? 1 : 0);
+            MemoryManager manager = new MemoryManager(arenaUnits * unitKb, unitKb, new FirstFit());
+            Strategies.apply(manager, strategy);
+            arenas[i] = new Arena(manager);
+        }
+        home = ThreadLocal.withInitial(() -> Math.floorMod(nextBinding.getAndIncrement(), arenas.length));
+    }
+
+    private ConcurrentMemoryManager(int totalKb, int unitKb) {
+        if (unitKb <= 0 || totalKb <= 0 || totalKb % unitKb != 0) {
+            throw new IllegalArgumentException("Memória de " + totalKb + "KB não é múltiplo positivo da unidade de " + unitKb + "KB");
+        }
+        this.arenas = new Arena[0];
+        this.home = ThreadLocal.withInitial(() -> 0);
+        this.lockFree = new BitmapAllocator();
+        this.lockFree.reset(totalKb, unitKb);
+        this.lockFreeBlocks = new ConcurrentHashMap<>();
+    }
+
+    // Modo sem locks sobre o mapa de bits compartilhado
+    public static ConcurrentMemoryManager lockFree(int totalKb, int unitKb) {
+        return new ConcurrentMemoryManager(totalKb, unitKb);
+    }
+
+    // 0 no modo sem locks
+    public int getArenaCount() {
+        return arenas.length;
+    }
+
+    // Associa a thread atual a uma arena
+    public void bind(int arena) {
+        if (lockFree != null) return; // sem arenas: nada a associar
+        if (arena < 0 || arena >= arenas.length) throw new IllegalArgumentException("Arena inexistente: " + arena);
+        home.set(arena);
+    }
+
+    public boolean allocate(String processId, int sizeKb) {
+        if (lockFree != null) return allocateLockFree(processId, sizeKb);
+        Integer owner = arenaOf.get(processId);
+        if (owner != null) return allocateIn(owner, processId, sizeKb); // processo já tem blocos: mesma arena
+
+        int first = home.get();
+        for (int k = 0; k < arenas.length; k++) {
+            int i = (first + k) % arenas.length;
+            if (allocateIn(i, processId, sizeKb)) {
+                arenaOf.put(processId, i);
+                if (k > 0) fallbackAllocations.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int free(String processId) {
+        if (lockFree != null) {
+            int[] starts = lockFreeBlocks.remove(processId);
+            if (starts == null) return 0;
+            int released = 0;
+            for (int start : starts) released += lockFree.release(start);
+            return released;
+        }
+        Integer owner = arenaOf.remove(processId);
+        if (owner == null) return 0;
+        if (owner.intValue() != home.get()) crossArenaFrees.increment();
+        Arena arena = arenas[owner];
+        lock(arena);
+        try {
+            return arena.manager.free(processId);
+        } finally {
+            arena.lock.unlock();
+        }
+    }
+
+    public int freeKb() {
+        if (lockFree != null) return lockFree.freeKb();
+        int free = 0;
+        for (Arena arena : arenas) {
+            lock(arena);
+            try {
+                free += arena.manager.freeKb();
+            } finally {
+                arena.lock.unlock();
+            }
+        }
+        return free;
+    }
+
+    public long getLockAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    // Aquisições em que o lock estava ocupado e a thread precisou esperar
+    public long getContendedAcquisitions() {
+        return contended.sum();
+    }
+
+    public long getCrossArenaFrees() {
+        return crossArenaFrees.sum();
+    }
+
+    public long getFallbackAllocations() {
+        return fallbackAllocations.sum();
+    }
+
+    private boolean allocateLockFree(String processId, int sizeKb) {
+        if (sizeKb <= 0) return false;
+        int start = lockFree.allocate(sizeKb);
+        if (start < 0) return false;
+        // um processo com vários blocos guarda todos os inícios (caminho raro: cópia do vetor)
+        lockFreeBlocks.merge(processId, new int[]{start}, (old, added) -> {
+            int[] merged = Arrays.copyOf(old, old.length + 1);
+            merged[old.length] = added[0];
+            return merged;
+        });
+        return true;
+    }
+
+    private boolean allocateIn(int index, String processId, int sizeKb) {
+        Arena arena = arenas[index];
+        lock(arena);
+        try {
+            return arena.manager.allocate(processId, sizeKb);
+        } finally {
+            arena.lock.unlock();
+        }
+    }
+
+    private void lock(Arena arena) {
+        acquisitions.increment();
+        if (!arena.lock.tryLock()) {
+            contended.increment();
+            arena.lock.lock();
+        }
+    }
+}
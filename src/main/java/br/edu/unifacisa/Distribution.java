@@ -0,0 +1,93 @@
+package br.edu.unifacisa;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Distribuição de inteiros positivos usada pelo WorkloadGenerator para tamanhos (KB) e tempos de vida (operações).
+// Implementações não guardam estado: toda a aleatoriedade vem do SplittableRandom recebido.
+public interface Distribution {
+
+    int sample(SplittableRandom random);
+
+    // Uniforme em [min, max]
+    static Distribution uniform(int min, int max) {
+        if (min < 1 || max < min) throw new IllegalArgumentException("Intervalo inválido: " + min + ".." + max);
+        return random -> min + random.nextInt(max - min + 1);
+    }
+
+    // Exponencial com a média dada, arredondada para cima (nunca menor que 1)
+    static Distribution exponential(double mean) {
+        if (mean <= 0) throw new IllegalArgumentException("Média deve ser positiva: " + mean);
+        return random -> clamp(Math.ceil(-mean * Math.log(1 - random.nextDouble())));
+    }
+
+    // Pareto com mínimo scale e expoente alpha (cauda longa: poucos pedidos muito grandes), limitada a max
+    static Distribution pareto(int scale, double alpha, int max) {
+        if (scale < 1 || alpha <= 0 || max < scale) throw new IllegalArgumentException("Parâmetros de Pareto inválidos");
+        return random -> Math.min(max, clamp(Math.floor(scale / Math.pow(1 - random.nextDouble(), 1 / alpha))));
+    }
+
+    // Histograma empírico: values[i] sorteado com peso weights[i] (busca binária na soma acumulada). Pesos zero
+    // são aceitos e nunca sorteados
+    static Distribution empirical(int[] values, long[] weights) {
+        if (values.length == 0 || values.length != weights.length) {
+            throw new IllegalArgumentException("Histograma vazio ou com pesos faltando");
+        }
+        int[] v = values.clone();
+        long[] cumulative = new long[weights.length];
+        long total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] < 0 || v[i] < 1) throw new IllegalArgumentException("Valor ou peso inválido na posição " + i);
+            total += weights[i];
+            cumulative[i] = total;
+        }
+        if (total == 0) throw new IllegalArgumentException("Histograma sem peso");
+        long sum = total;
+        return random -> {
+            // primeira posição com soma acumulada maior que o sorteio: pula as de peso zero, que repetem a anterior
+            long draw = random.nextLong(sum);
+            int lo = 0, hi = cumulative.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] > draw) hi = mid;
+                else lo = mid + 1;
+            }
+            return v[lo];
+        };
+    }
+
+    // Lê a forma textual usada na linha de comando:
+    // uniform:MIN:MAX | exponential:MÉDIA | pareto:MÍN:ALFA:MÁX | empirical:VALOR=PESO,VALOR=PESO,...
+    static Distribution parse(String spec) {
+        String[] p = spec.split(":");
+        try {
+            switch (p[0].toLowerCase(Locale.ROOT)) {
+                case "uniform":
+                    return uniform(Integer.parseInt(p[1]), Integer.parseInt(p[2]));
+                case "exponential":
+                case "exp":
+                    return exponential(Double.parseDouble(p[1]));
+                case "pareto":
+                    return pareto(Integer.parseInt(p[1]), Double.parseDouble(p[2]), Integer.parseInt(p[3]));
+                case "empirical":
+                    String[] bins = p[1].split(",");
+                    int[] values = new int[bins.length];
+                    long[] weights = new long[bins.length];
+                    for (int i = 0; i < bins.length; i++) {
+                        String[] kv = bins[i].split("=");
+                        values[i] = Integer.parseInt(kv[0]);
+                        weights[i] = Long.parseLong(kv[1]);
+                    }
+                    return empirical(values, weights);
+                default:
+                    throw new IllegalArgumentException("Distribuição desconhecida: " + spec);
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Distribuição mal formada: " + spec, e);
+        }
+    }
+
+    private static int clamp(double value) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, value));
+    }
+}
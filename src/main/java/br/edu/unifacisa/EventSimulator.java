@@ -0,0 +1,491 @@
+package br.edu.unifacisa;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Simulação por eventos discretos sobre um MemoryManager: processos chegam em instantes dados, ficam em memória
+// pelo tempo de vida e saem sozinhos. O relógio salta direto para o próximo evento de um heap mínimo (tempo,
+// ordem de agendamento) guardado em vetores primitivos, então não há varredura por tick e milhões de eventos
+// pendentes custam O(log n) cada.
+//
+// Uma chegada que não cabe vai para a fila de espera (QueuePolicy.FIFO) ou é recusada (REJECT). A fila é
+// atendida em ordem sempre que memória é liberada: o primeiro da fila bloqueia os seguintes até caber, e quem
+// chega enquanto há fila entra no fim dela. Com maxWait > 0 quem espera mais que isso desiste. O tempo de vida
+// conta a partir da alocação, não da chegada.
+//
+// As chegadas vêm de scheduleArrival(), de generate() (intervalos, tamanhos e vidas sorteados, um de cada vez)
+// ou de replay() de um trace binário, lido sob demanda (o instante é o timestamp do trace ou, sem timestamps,
+// o número do evento; FREE do trace vira saída do processo). Uma segunda chegada de um processo que já está em
+// memória vira um bloco a mais dele, sem fila; se o processo ainda espera na fila, a segunda chegada é recusada.
+// Pedidos maiores que o maior bloco que a estratégia consegue formar (MemoryManager.maxBlockKb) são recusados
+// na chegada, senão travariam a fila para sempre.
+//
+// Uso: java -cp out br.edu.unifacisa.EventSimulator [--algo=first|next|best|buddy|tlsf|bitmap] [--memory=KB]
+//      [--unit=KB] [--arrivals=N] [--interarrival=DIST] [--sizes=DIST] [--lifetimes=DIST] [--queue=fifo|reject]
+//      [--max-wait=T] [--seed=N] [--trace=arquivo.mstr]   (DIST no formato de Distribution.parse)
+public class EventSimulator {
+
+    public enum QueuePolicy { REJECT, FIFO }
+
+    // tipos de evento
+    private static final byte ARRIVAL = 0;
+    private static final byte DEPARTURE = 1;
+    private static final byte TIMEOUT = 2;
+    private static final byte FREE_BY_ID = 3;     // saída pelo nome (trace ou scheduleDeparture)
+    private static final byte FROM_SOURCE = 0x10; // depois de processado, agenda o próximo evento da origem
+
+    // estado de cada requisição
+    private static final byte UNUSED = 0;
+    private static final byte SCHEDULED = 1;
+    private static final byte WAITING = 2;
+    private static final byte RUNNING = 3;
+    private static final byte NAME_ONLY = 4;      // só carrega o nome de um FREE_BY_ID
+
+    // Contadores e distribuições de uma simulação
+    public static class Stats {
+        public long arrivals;
+        public long allocatedImmediately;
+        public long queued;
+        public long servedFromQueue;
+        public long rejected;          // não coube e não havia fila (REJECT), nunca caberia ou repete um id na fila
+        public long abandoned;         // desistiu depois de maxWait na fila
+        public long cancelled;         // saiu (FREE do trace) antes de ser atendido
+        public long departures;
+        public int maxQueueLength;
+        public int maxPendingEvents;
+        public int stillWaiting;       // na fila quando run() terminou (só saem com um FREE ou maxWait)
+        public final LatencyHistogram waitTimes = new LatencyHistogram(); // de todas as alocações, em unidades de tempo
+        private double queueArea;      // integral do tamanho da fila no tempo
+        private long elapsed;
+
+        // Tamanho médio da fila ponderado pelo tempo
+        public double meanQueueLength() {
+            return elapsed == 0 ? 0 : queueArea / elapsed;
+        }
+
+        public long elapsedTime() {
+            return elapsed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "Tempo simulado: %d%n"
+                            + "Chegadas: %d | alocadas na hora: %d | enfileiradas: %d | atendidas da fila: %d%n"
+                            + "Recusadas: %d | desistências: %d | canceladas na fila: %d | saídas: %d%n"
+                            + "Espera: média %.1f | p50 %d | p90 %d | p99 %d | máx %d%n"
+                            + "Fila: média %.2f | máx %d | ainda esperando no fim: %d | eventos pendentes (máx): %d",
+                    elapsed, arrivals, allocatedImmediately, queued, servedFromQueue,
+                    rejected, abandoned, cancelled, departures,
+                    waitTimes.mean(), waitTimes.percentile(50), waitTimes.percentile(90), waitTimes.percentile(99),
+                    waitTimes.max(), meanQueueLength(), maxQueueLength, stillWaiting, maxPendingEvents);
+        }
+    }
+
+    private final MemoryManager manager;
+    private final QueuePolicy policy;
+    private final long maxWait;
+    private final Stats stats = new Stats();
+    private long now;
+    private long sequence;
+
+    // heap de eventos: instante, ordem de agendamento (desempate), requisição << 32 | geração, tipo
+    private long[] eventTime = new long[64];
+    private long[] eventSeq = new long[64];
+    private long[] eventRef = new long[64];
+    private byte[] eventKind = new byte[64];
+    private int events;
+
+    // requisições (slots reciclados; a geração invalida eventos e posições de fila antigos)
+    private String[] ids = new String[64];
+    private int[] sizes = new int[64];
+    private long[] lifetimes = new long[64];
+    private long[] arrivedAt = new long[64];
+    private int[] generation = new int[64];
+    private byte[] state = new byte[64];
+    private int slots;
+    private int[] recycled = new int[64];
+    private int recycledCount;
+    private final Map<String, Integer> slotById = new HashMap<>();
+
+    // fila de espera circular (requisição << 32 | geração); entradas de quem desistiu ficam até chegar à frente
+    private long[] queue = new long[64];
+    private int queueHead, queueSize, waiting;
+
+    // origem das chegadas
+    private SplittableRandom random;
+    private long toGenerate;
+    private long generated;
+    private Distribution interarrival, sizeDistribution, lifetimeDistribution;
+    private TraceReader trace;
+
+    // maxWait <= 0: espera sem limite
+    public EventSimulator(MemoryManager manager, QueuePolicy policy, long maxWait) {
+        this.manager = manager;
+        this.policy = policy;
+        this.maxWait = maxWait;
+    }
+
+    public long now() {
+        return now;
+    }
+
+    public int pendingEvents() {
+        return events;
+    }
+
+    // Requisições esperando memória (sem contar as que já desistiram)
+    public int queueLength() {
+        return waiting;
+    }
+
+    public Stats stats() {
+        return stats;
+    }
+
+    // Chegada de um processo no instante time; lifetime <= 0: fica até um scheduleDeparture
+    public void scheduleArrival(long time, String processId, int sizeKb, long lifetime) {
+        int r = newRequest(processId, sizeKb, lifetime, SCHEDULED);
+        push(time, r, ARRIVAL);
+    }
+
+    // Saída do processo no instante time (libera os blocos ou tira o pedido da fila)
+    public void scheduleDeparture(long time, String processId) {
+        push(time, newRequest(processId, 0, 0, NAME_ONLY), FREE_BY_ID);
+    }
+
+    // Gera count chegadas com intervalos, tamanhos e vidas sorteados; cada uma é agendada quando a anterior chega
+    public EventSimulator generate(long seed, long count, Distribution interarrival, Distribution sizes, Distribution lifetimes) {
+        this.random = new SplittableRandom(seed);
+        this.toGenerate = count;
+        this.interarrival = interarrival;
+        this.sizeDistribution = sizes;
+        this.lifetimeDistribution = lifetimes;
+        scheduleNextGenerated();
+        return this;
+    }
+
+    // Reproduz um trace binário, lendo um evento por vez
+    public EventSimulator replay(TraceReader trace) {
+        this.trace = trace;
+        scheduleNextTraceEvent();
+        return this;
+    }
+
+    // Processa o próximo evento; false quando não há mais nenhum
+    public boolean step() {
+        if (events == 0) return false;
+        long time = eventTime[0];
+        long ref = eventRef[0];
+        byte kind = eventKind[0];
+        pop();
+        advanceClock(time);
+        int r = (int) (ref >>> 32);
+        boolean current = generation[r] == (int) ref;
+        switch (kind & ~FROM_SOURCE) {
+            case ARRIVAL -> onArrival(r);
+            case DEPARTURE -> {
+                if (current && state[r] == RUNNING) depart(r);
+            }
+            case TIMEOUT -> {
+                if (current && state[r] == WAITING) {
+                    stats.abandoned++;
+                    waiting--;
+                    slotById.remove(ids[r]);
+                    release(r); // a entrada na fila fica obsoleta pela geração
+                }
+            }
+            case FREE_BY_ID -> freeById(r);
+            default -> throw new IllegalStateException("Evento desconhecido: " + kind);
+        }
+        if ((kind & FROM_SOURCE) != 0) {
+            if (trace != null) scheduleNextTraceEvent();
+            else scheduleNextGenerated();
+        }
+        return true;
+    }
+
+    // Processa os eventos até o instante time (inclusive) e devolve quantos foram processados
+    public long runUntil(long time) {
+        long processed = 0;
+        while (events > 0 && eventTime[0] <= time && step()) processed++;
+        if (time > now) advanceClock(time);
+        return processed;
+    }
+
+    public long run() {
+        long processed = 0;
+        while (step()) processed++;
+        stats.stillWaiting = waiting;
+        return processed;
+    }
+
+    private void onArrival(int r) {
+        stats.arrivals++;
+        String id = ids[r];
+        Integer existing = slotById.get(id);
+        if (existing != null && existing != r) {
+            // processo já em memória: bloco a mais, sem fila; ainda na fila: recusada, para não passar na frente
+            if (state[existing] != RUNNING || !manager.allocate(id, sizes[r])) stats.rejected++;
+            release(r);
+            return;
+        }
+        if (manager.align(sizes[r]) > manager.maxBlockKb()) {
+            stats.rejected++;
+            release(r);
+            return;
+        }
+        slotById.put(id, r);
+        if (waiting == 0 && tryStart(r)) {
+            stats.allocatedImmediately++;
+            return;
+        }
+        if (policy == QueuePolicy.REJECT) {
+            stats.rejected++;
+            slotById.remove(id);
+            release(r);
+            return;
+        }
+        state[r] = WAITING;
+        enqueue(((long) r << 32) | (generation[r] & 0xFFFFFFFFL));
+        waiting++;
+        stats.queued++;
+        stats.maxQueueLength = Math.max(stats.maxQueueLength, waiting);
+        if (maxWait > 0) push(now + maxWait, r, TIMEOUT);
+    }
+
+    private boolean tryStart(int r) {
+        if (!manager.allocate(ids[r], sizes[r])) return false;
+        state[r] = RUNNING;
+        stats.waitTimes.record(now - arrivedAt[r]);
+        if (lifetimes[r] > 0) push(now + lifetimes[r], r, DEPARTURE);
+        return true;
+    }
+
+    private void depart(int r) {
+        manager.free(ids[r]);
+        stats.departures++;
+        slotById.remove(ids[r]);
+        release(r);
+        drainQueue();
+    }
+
+    private void freeById(int carrier) {
+        String id = ids[carrier];
+        release(carrier);
+        Integer r = slotById.get(id);
+        if (r == null) return;
+        if (state[r] == RUNNING) {
+            depart(r);
+        } else if (state[r] == WAITING) {
+            stats.cancelled++;
+            waiting--;
+            slotById.remove(id);
+            release(r);
+        }
+    }
+
+    // Atende a fila em ordem enquanto o primeiro couber
+    private void drainQueue() {
+        while (queueSize > 0) {
+            long entry = queue[queueHead];
+            int r = (int) (entry >>> 32);
+            if (generation[r] != (int) entry || state[r] != WAITING) {
+                dequeue(); // desistiu ou foi cancelado
+                continue;
+            }
+            if (!tryStart(r)) return;
+            dequeue();
+            waiting--;
+            stats.servedFromQueue++;
+        }
+    }
+
+    private void advanceClock(long time) {
+        if (time < now) time = now; // eventos agendados no passado acontecem agora
+        stats.queueArea += (double) waiting * (time - now);
+        stats.elapsed = time;
+        now = time;
+    }
+
+    private void scheduleNextGenerated() {
+        if (random == null || generated >= toGenerate) return;
+        generated++;
+        long time = (generated == 1 ? now : now + interarrival.sample(random));
+        int r = newRequest("P" + generated, sizeDistribution.sample(random), lifetimeDistribution.sample(random), SCHEDULED);
+        push(time, r, (byte) (ARRIVAL | FROM_SOURCE));
+    }
+
+    private void scheduleNextTraceEvent() {
+        try {
+            if (!trace.advance()) return;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long time = trace.hasTimestamps() ? trace.timestamp() : trace.eventsRead();
+        if (trace.type() == Operation.Type.ALLOC) {
+            push(time, newRequest(trace.processId(), trace.sizeKb(), 0, SCHEDULED), (byte) (ARRIVAL | FROM_SOURCE));
+        } else {
+            push(time, newRequest(trace.processId(), 0, 0, NAME_ONLY), (byte) (FREE_BY_ID | FROM_SOURCE));
+        }
+    }
+
+    private int newRequest(String processId, int sizeKb, long lifetime, byte initialState) {
+        int r;
+        if (recycledCount > 0) {
+            r = recycled[--recycledCount];
+        } else {
+            if (slots == ids.length) growRequests();
+            r = slots++;
+        }
+        ids[r] = processId;
+        sizes[r] = sizeKb;
+        lifetimes[r] = lifetime;
+        arrivedAt[r] = now;
+        state[r] = initialState;
+        return r;
+    }
+
+    private void release(int r) {
+        ids[r] = null;
+        state[r] = UNUSED;
+        generation[r]++;
+        if (recycledCount == recycled.length) recycled = Arrays.copyOf(recycled, recycled.length * 2);
+        recycled[recycledCount++] = r;
+    }
+
+    private void growRequests() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        lifetimes = Arrays.copyOf(lifetimes, capacity);
+        arrivedAt = Arrays.copyOf(arrivedAt, capacity);
+        generation = Arrays.copyOf(generation, capacity);
+        state = Arrays.copyOf(state, capacity);
+    }
+
+    private void enqueue(long entry) {
+        if (queueSize == queue.length) {
+            long[] larger = new long[queue.length * 2];
+            for (int i = 0; i < queueSize; i++) larger[i] = queue[(queueHead + i) % queue.length];
+            queue = larger;
+            queueHead = 0;
+        }
+        queue[(queueHead + queueSize++) % queue.length] = entry;
+    }
+
+    private void dequeue() {
+        queueHead = (queueHead + 1) % queue.length;
+        queueSize--;
+    }
+
+    private void push(long time, int r, byte kind) {
+        if (kind == ARRIVAL || (kind & ~FROM_SOURCE) == ARRIVAL) arrivedAt[r] = time;
+        if (events == eventTime.length) {
+            int capacity = events * 2;
+            eventTime = Arrays.copyOf(eventTime, capacity);
+            eventSeq = Arrays.copyOf(eventSeq, capacity);
+            eventRef = Arrays.copyOf(eventRef, capacity);
+            eventKind = Arrays.copyOf(eventKind, capacity);
+        }
+        long seq = sequence++;
+        long ref = ((long) r << 32) | (generation[r] & 0xFFFFFFFFL);
+        int i = events++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (before(eventTime[parent], eventSeq[parent], time, seq)) break;
+            move(parent, i);
+            i = parent;
+        }
+        set(i, time, seq, ref, kind);
+        stats.maxPendingEvents = Math.max(stats.maxPendingEvents, events);
+    }
+
+    private void pop() {
+        int last = --events;
+        long time = eventTime[last], seq = eventSeq[last], ref = eventRef[last];
+        byte kind = eventKind[last];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= events) break;
+            if (child + 1 < events && before(eventTime[child + 1], eventSeq[child + 1], eventTime[child], eventSeq[child])) child++;
+            if (before(time, seq, eventTime[child], eventSeq[child])) break;
+            move(child, i);
+            i = child;
+        }
+        if (events > 0) set(i, time, seq, ref, kind);
+    }
+
+    private static boolean before(long timeA, long seqA, long timeB, long seqB) {
+        return timeA < timeB || (timeA == timeB && seqA < seqB);
+    }
+
+    private void move(int from, int to) {
+        eventTime[to] = eventTime[from];
+        eventSeq[to] = eventSeq[from];
+        eventRef[to] = eventRef[from];
+        eventKind[to] = eventKind[from];
+    }
+
+    private void set(int i, long time, long seq, long ref, byte kind) {
+        eventTime[i] = time;
+        eventSeq[i] = seq;
+        eventRef[i] = ref;
+        eventKind[i] = kind;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String algo = "first";
+        int memoryKb = 1 << 16;
+        int unitKb = 4;
+        long arrivals = 1_000_000;
+        Distribution interarrival = Distribution.exponential(10);
+        Distribution sizes = Distribution.pareto(4, 1.3, 4096);
+        Distribution lifetimes = Distribution.exponential(30_000);
+        QueuePolicy policy = QueuePolicy.FIFO;
+        long maxWait = 0;
+        long seed = 42;
+        String trace = null;
+
+        for (String arg : args) {
+            String value = arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : "";
+            if (arg.startsWith("--algo=")) algo = value;
+            else if (arg.startsWith("--memory=")) memoryKb = Integer.parseInt(value);
+            else if (arg.startsWith("--unit=")) unitKb = Integer.parseInt(value);
+            else if (arg.startsWith("--arrivals=")) arrivals = Long.parseLong(value);
+            else if (arg.startsWith("--interarrival=")) interarrival = Distribution.parse(value);
+            else if (arg.startsWith("--sizes=")) sizes = Distribution.parse(value);
+            else if (arg.startsWith("--lifetimes=")) lifetimes = Distribution.parse(value);
+            else if (arg.startsWith("--queue=")) policy = QueuePolicy.valueOf(value.toUpperCase(Locale.ROOT));
+            else if (arg.startsWith("--max-wait=")) maxWait = Long.parseLong(value);
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(value);
+            else if (arg.startsWith("--trace=")) trace = value;
+            else throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+        }
+
+        MemoryManager manager = new MemoryManager(memoryKb, unitKb, new FirstFit());
+        Strategies.apply(manager, algo);
+        EventSimulator simulator = new EventSimulator(manager, policy, maxWait);
+        System.out.println("Memória: " + memoryKb + "KB em unidades de " + unitKb + "KB | " + manager.getAlgorithmName()
+                + " | fila: " + policy + (maxWait > 0 ? " (espera máx. " + maxWait + ")" : ""));
+        long start = System.nanoTime();
+        long processed;
+        if (trace != null) {
+            try (TraceReader reader = new TraceReader(Path.of(trace))) {
+                processed = simulator.replay(reader).run();
+            }
+        } else {
+            processed = simulator.generate(seed, arrivals, interarrival, sizes, lifetimes).run();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println(simulator.stats());
+        System.out.printf(Locale.ROOT, "%d eventos em %.3fs (%.0f eventos/s)%n", processed, elapsed / 1e9, processed * 1e9 / elapsed);
+    }
+}
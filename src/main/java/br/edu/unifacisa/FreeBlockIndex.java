@@ -0,0 +1,163 @@
+package br.edu.unifacisa;
+
+import java.util.Arrays;
+
+// Índice dos blocos livres ordenado por tamanho (e endereço para desempate).
+// Cada bloco livre vira uma chave long (tamanho nos 32 bits altos, endereço nos baixos) guardada
+// em uma treap sobre vetores primitivos, sem objetos por bloco.
+public class FreeBlockIndex {
+    private static final int NIL = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] key = new long[INITIAL_CAPACITY];
+    private int[] left = new int[INITIAL_CAPACITY];
+    private int[] right = new int[INITIAL_CAPACITY];
+    private int[] priority = new int[INITIAL_CAPACITY];
+    private int root = NIL;
+    private int size;
+    private int nodeCount;
+    private int[] recycled = new int[INITIAL_CAPACITY];
+    private int recycledCount;
+    private int seed = 0x6C8E9CF5;
+    private int splitLeft, splitRight;
+    private long inspected; // nós visitados por bestFit (métricas)
+
+    // A chave depende do tamanho e do endereço: remova o bloco antes de alterá-los e adicione de novo depois
+    public void add(int startKb, int sizeKb) {
+        long k = key(startKb, sizeKb);
+        int node = newNode(k);
+        split(root, k);
+        int l = splitLeft, r = splitRight;
+        root = merge(merge(l, node), r);
+        size++;
+    }
+
+    // Monta o índice vazio com n blocos livres de uma vez: ordena as chaves e constrói a treap em O(n) a partir
+    // delas (árvore cartesiana), em vez de n inserções
+    public void addAll(int[] startKb, int[] sizeKb, int n) {
+        if (root != NIL) throw new IllegalStateException("addAll só monta um índice vazio");
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) keys[i] = key(startKb[i], sizeKb[i]);
+        Arrays.sort(keys);
+        int[] stack = new int[Math.max(1, n)];
+        int top = 0;
+        for (long k : keys) {
+            int node = newNode(k);
+            int last = NIL;
+            while (top > 0 && priority[stack[top - 1]] < priority[node]) last = stack[--top];
+            left[node] = last;
+            if (top > 0) right[stack[top - 1]] = node;
+            stack[top++] = node;
+        }
+        root = n > 0 ? stack[0] : NIL;
+        size = n;
+    }
+
+    public void remove(int startKb, int sizeKb) {
+        long k = key(startKb, sizeKb);
+        split(root, k);
+        int l = splitLeft;
+        split(splitRight, k + 1);
+        int removed = splitLeft;
+        root = merge(l, splitRight);
+        if (removed != NIL) {
+            recycle(removed);
+            size--;
+        }
+    }
+
+    public void clear() {
+        root = NIL;
+        size = 0;
+        nodeCount = 0;
+        recycledCount = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Total acumulado de nós visitados por bestFit
+    public long inspectedNodes() {
+        return inspected;
+    }
+
+    // Endereço do menor bloco livre que comporte requiredKb; em empate, o de menor endereço
+    // (mesma escolha da varredura completa). -1 se nenhum couber.
+    public int bestFit(int requiredKb) {
+        long target = key(0, requiredKb);
+        long best = -1;
+        int n = root;
+        while (n != NIL) {
+            inspected++;
+            if (key[n] >= target) {
+                best = key[n];
+                n = left[n];
+            } else {
+                n = right[n];
+            }
+        }
+        return best < 0 ? -1 : (int) best;
+    }
+
+    private static long key(int startKb, int sizeKb) {
+        return ((long) sizeKb << 32) | (startKb & 0xFFFFFFFFL);
+    }
+
+    // Divide t em chaves < k (splitLeft) e >= k (splitRight)
+    private void split(int t, long k) {
+        if (t == NIL) {
+            splitLeft = splitRight = NIL;
+            return;
+        }
+        if (key[t] < k) {
+            split(right[t], k);
+            right[t] = splitLeft;
+            splitLeft = t;
+        } else {
+            split(left[t], k);
+            left[t] = splitRight;
+            splitRight = t;
+        }
+    }
+
+    private int merge(int a, int b) {
+        if (a == NIL) return b;
+        if (b == NIL) return a;
+        if (priority[a] > priority[b]) {
+            right[a] = merge(right[a], b);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        return b;
+    }
+
+    private int newNode(long k) {
+        int node;
+        if (recycledCount > 0) {
+            node = recycled[--recycledCount];
+        } else {
+            if (nodeCount == key.length) {
+                int capacity = key.length * 2;
+                key = Arrays.copyOf(key, capacity);
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                priority = Arrays.copyOf(priority, capacity);
+            }
+            node = nodeCount++;
+        }
+        key[node] = k;
+        left[node] = NIL;
+        right[node] = NIL;
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        priority[node] = seed;
+        return node;
+    }
+
+    private void recycle(int node) {
+        if (recycledCount == recycled.length) recycled = Arrays.copyOf(recycled, recycled.length * 2);
+        recycled[recycledCount++] = node;
+    }
+}
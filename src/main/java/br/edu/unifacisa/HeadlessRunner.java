@@ -0,0 +1,264 @@
+package br.edu.unifacisa;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Execução sem interface gráfica: aplica uma carga direto no MemoryManager, sem pausas nem repintura,
+// e imprime vazão e métricas finais. Útil para rodar milhões de operações em servidor sem tela.
+//
+// Uso: java -cp out br.edu.unifacisa.HeadlessRunner [--algo=first|next|best|buddy|tlsf|bitmap] [--memory=KB]
+//      [--unit=KB] [--ops=N] [--live=N] [--max-size=KB] [--seed=N] [--demo] [--trace=arquivo.mstr]
+//      [--sizes=DIST] [--lifetimes=DIST] [--metrics] [--jfr]   (DIST no formato de Distribution.parse, ex.: pareto:4:1.5:4096)
+//      [--compaction=none|full|incremental:KB|threshold:FRAÇÃO] [--deferred-coalescing=N]
+//      [--seek=N,N,...] [--checkpoint-interval=N]   (pula para cada passo na ordem dada, inclusive para trás)
+//      [--load-state=arquivo.msst] [--save-state=arquivo.msst] [--stop-after=N]
+//      (retoma um estado salvo; salva o estado e a carga restante depois de N operações ou no fim)
+public class HeadlessRunner {
+
+    // Resultado de uma execução
+    public static class Result {
+        public final String algorithm;
+        public final long operations;
+        public final long allocations;
+        public final long failedAllocations;
+        public final long elapsedNanos;
+        public final double externalFragmentation;
+        public final long internalFragmentationKb;
+        public final long steps;
+        public final long relocatedKb;      // custo de cópia da compactação
+        public final long relocatedBlocks;
+        public final long compactions;
+
+        Result(String algorithm, long operations, long allocations, long failedAllocations, long elapsedNanos,
+               MemoryManager manager) {
+            this.algorithm = algorithm;
+            this.operations = operations;
+            this.allocations = allocations;
+            this.failedAllocations = failedAllocations;
+            this.elapsedNanos = elapsedNanos;
+            this.externalFragmentation = manager.externalFragmentation();
+            this.internalFragmentationKb = manager.internalFragmentationKb();
+            this.steps = manager.getSteps();
+            this.relocatedKb = manager.getRelocatedKb();
+            this.relocatedBlocks = manager.getRelocatedBlocks();
+            this.compactions = manager.getCompactions();
+        }
+
+        public double opsPerSecond() {
+            return elapsedNanos == 0 ? 0 : operations * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "Algoritmo: %s%n"
+                            + "Operações: %d em %.3fs (%.0f ops/s)%n"
+                            + "Alocações com falha: %d de %d%n"
+                            + "Fragmentação externa: %.1f%% | interna: %dKB%n"
+                            + "Passos (steps): %d%n"
+                            + "Relocação: %dKB em %d blocos (%d compactações completas)",
+                    algorithm, operations, elapsedNanos / 1e9, opsPerSecond(),
+                    failedAllocations, allocations,
+                    externalFragmentation * 100, internalFragmentationKb, steps,
+                    relocatedKb, relocatedBlocks, compactions);
+        }
+    }
+
+    // Consome a carga inteira no manager, na velocidade máxima
+    public static Result run(MemoryManager manager, Workload workload) {
+        return run(manager, workload, Long.MAX_VALUE);
+    }
+
+    // Consome no máximo limit operações da carga; o restante continua na workload
+    public static Result run(MemoryManager manager, Workload workload, long limit) {
+        long operations = 0, allocations = 0, failed = 0;
+        long start = System.nanoTime();
+        Operation op;
+        while (operations < limit && (op = workload.poll()) != null) {
+            operations++;
+            if (op.type == Operation.Type.ALLOC) {
+                allocations++;
+                if (!manager.allocate(op.processId, op.sizeKb)) failed++;
+            } else {
+                manager.free(op.processId);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Result(manager.getAlgorithmName(), operations, allocations, failed, elapsed, manager);
+    }
+
+    // Reproduz um trace binário direto do cursor do leitor, sem criar Operation por evento
+    public static Result run(MemoryManager manager, TraceReader trace) throws IOException {
+        long operations = 0, allocations = 0, failed = 0;
+        long start = System.nanoTime();
+        while (trace.advance()) {
+            operations++;
+            if (trace.type() == Operation.Type.ALLOC) {
+                allocations++;
+                if (!manager.allocate(trace.processId(), trace.sizeKb())) failed++;
+            } else {
+                manager.free(trace.processId());
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Result(manager.getAlgorithmName(), operations, allocations, failed, elapsed, manager);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String algo = "first";
+        int memoryKb = MemoryManager.DEFAULT_TOTAL_KB;
+        int unitKb = MemoryManager.DEFAULT_UNIT_KB;
+        long ops = 1_000_000;
+        int live = 1_000;
+        int maxSizeKb = 0;
+        long seed = 42;
+        boolean demo = false;
+        String trace = null;
+        String sizes = null;       // no formato de Distribution.parse
+        String lifetimes = null;
+        boolean metrics = false;
+        boolean jfr = false;
+        CompactionPolicy compaction = null;   // null/-1: padrão (sem compactação, junção imediata) ou o do estado
+        int deferredCoalescing = -1;
+        int[] seeks = null;
+        int checkpointInterval = Timeline.DEFAULT_INTERVAL;
+        String loadState = null;
+        String saveState = null;
+        long stopAfter = Long.MAX_VALUE;
+
+        for (String arg : args) {
+            String value = arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : "";
+            if (arg.startsWith("--algo=")) algo = value;
+            else if (arg.startsWith("--memory=")) memoryKb = Integer.parseInt(value);
+            else if (arg.startsWith("--unit=")) unitKb = Integer.parseInt(value);
+            else if (arg.startsWith("--ops=")) ops = Long.parseLong(value);
+            else if (arg.startsWith("--live=")) live = Integer.parseInt(value);
+            else if (arg.startsWith("--max-size=")) maxSizeKb = Integer.parseInt(value);
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(value);
+            else if (arg.equals("--demo")) demo = true;
+            else if (arg.startsWith("--trace=")) trace = value;
+            else if (arg.startsWith("--sizes=")) sizes = value;
+            else if (arg.startsWith("--lifetimes=")) lifetimes = value;
+            else if (arg.equals("--metrics")) metrics = true;
+            else if (arg.equals("--jfr")) jfr = metrics = true;
+            else if (arg.startsWith("--compaction=")) compaction = CompactionPolicy.parse(value);
+            else if (arg.startsWith("--deferred-coalescing=")) deferredCoalescing = Integer.parseInt(value);
+            else if (arg.startsWith("--seek=")) seeks = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+            else if (arg.startsWith("--checkpoint-interval=")) checkpointInterval = Integer.parseInt(value);
+            else if (arg.startsWith("--load-state=")) loadState = value;
+            else if (arg.startsWith("--save-state=")) saveState = value;
+            else if (arg.startsWith("--stop-after=")) stopAfter = Long.parseLong(value);
+            else throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+        }
+        // por padrão os pedidos cabem folgados: a carga viva média ocupa cerca de metade da memória
+        if (maxSizeKb <= 0) maxSizeKb = Math.max(1, memoryKb / Math.max(1, live));
+        // a carga aleatória é gerada sob demanda (memória constante mesmo com bilhões de operações) a partir
+        // desta descrição, que também vai para o --save-state para a retomada recriar o gerador
+        String generator = "seed=" + seed + ";ops=" + ops + ";live=" + live
+                + ";sizes=" + (sizes != null ? sizes : "uniform:1:" + maxSizeKb)
+                + (lifetimes != null ? ";lifetimes=" + lifetimes : "");
+        WorkloadGenerator.parse(generator); // erros de --sizes/--lifetimes aparecem antes de rodar
+
+        StateFile state = null;
+        if (loadState != null) {
+            // a memória, a unidade e a estratégia vêm do estado salvo
+            long start = System.nanoTime();
+            state = StateFile.load(Path.of(loadState));
+            memoryKb = state.getCheckpoint().getTotalKb();
+            unitKb = state.getCheckpoint().getUnitKb();
+            System.out.printf(Locale.ROOT, "Estado %s: %d blocos, %d processos, passo %d (lido em %.1fms)%n", loadState,
+                    state.getCheckpoint().blockCount(), state.getCheckpoint().processCount(),
+                    state.getCheckpoint().getSteps(), (System.nanoTime() - start) / 1e6);
+        }
+
+        MemoryManager manager = new MemoryManager(memoryKb, unitKb, new FirstFit());
+        Strategies.apply(manager, state != null ? state.getCheckpoint().getAlgorithmName() : algo);
+        if (saveState != null && !manager.supportsCheckpoints()) {
+            // falha antes de rodar a carga, não depois
+            throw new IllegalArgumentException("--save-state não funciona com o motor " + manager.getAlgorithmName()
+                    + ": só as estratégias first, next e best guardam o estado");
+        }
+        if (state != null) {
+            manager.setCompaction(state.getCompaction());
+            manager.setDeferredCoalescing(state.getDeferredCoalescing());
+        }
+        // as opções da linha de comando valem sobre as do estado
+        if (compaction != null) manager.setCompaction(compaction);
+        if (deferredCoalescing >= 0) manager.setDeferredCoalescing(deferredCoalescing);
+        MetricsRecorder recorder = metrics ? new MetricsRecorder(jfr) : null;
+        manager.setMetrics(recorder);
+        System.out.println("Memória: " + memoryKb + "KB em unidades de " + unitKb + "KB | " + manager.getCompaction());
+        if (state != null || saveState != null) {
+            // retomada e/ou pausa: a carga passa pela Workload, que sabe quanto do trace ou do gerador já foi consumido
+            Workload workload;
+            if (state != null) {
+                long start = System.nanoTime();
+                workload = new Workload();
+                CompactionPolicy policy = manager.getCompaction();
+                int threshold = manager.getDeferredCoalescing();
+                state.restore(manager, workload);
+                manager.setCompaction(policy);
+                manager.setDeferredCoalescing(threshold);
+                System.out.printf(Locale.ROOT, "Restaurado em %.1fms (%s)%n", (System.nanoTime() - start) / 1e6, manager.getAlgorithmName());
+            } else if (trace != null) {
+                workload = new Workload();
+                workload.setTrace(Path.of(trace), 0);
+            } else if (demo) {
+                workload = Workload.demo();
+            } else {
+                workload = new Workload();
+                workload.setGenerator(generator, 0);
+            }
+            System.out.println(run(manager, workload, stopAfter));
+            if (recorder != null) System.out.println(recorder);
+            if (saveState != null) {
+                long start = System.nanoTime();
+                StateFile.save(Path.of(saveState), manager, List.of(), workload);
+                System.out.printf(Locale.ROOT, "Estado salvo em %s (%.1fms)%n", saveState, (System.nanoTime() - start) / 1e6);
+            }
+            workload.clear();
+            return;
+        }
+        if (trace != null && seeks != null) {
+            try (TraceReader reader = new TraceReader(Path.of(trace))) {
+                System.out.println("Trace: " + trace);
+                seek(manager, new Workload(reader.operations()), seeks, checkpointInterval);
+            }
+            return;
+        }
+        if (trace != null) {
+            try (TraceReader reader = new TraceReader(Path.of(trace))) {
+                System.out.println("Trace: " + trace);
+                System.out.println(run(manager, reader));
+            }
+            if (recorder != null) System.out.println(recorder);
+            return;
+        }
+        Workload workload = demo ? Workload.demo() : new Workload(WorkloadGenerator.parse(generator));
+        if (seeks != null) {
+            seek(manager, workload, seeks, checkpointInterval);
+            return;
+        }
+        System.out.println(run(manager, workload));
+        if (recorder != null) System.out.println(recorder);
+    }
+
+    // Navega pela carga com uma Timeline, imprimindo o estado e o custo de cada salto
+    static void seek(MemoryManager manager, Workload workload, int[] targets, int checkpointInterval) {
+        Timeline timeline = new Timeline(manager, checkpointInterval);
+        timeline.setHistoryLimit(Integer.MAX_VALUE, Timeline.DEFAULT_CHECKPOINT_BUDGET); // os saltos podem voltar ao início
+        timeline.setSource(workload);
+        for (int target : targets) {
+            long start = System.nanoTime();
+            int reached = timeline.seek(target);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf(Locale.ROOT, "Passo %d%s: livre %dKB em %d blocos | frag. externa %.1f%% | %d processos | %.3fms%n",
+                    reached, reached < target ? " (fim da carga)" : "", manager.freeKb(), manager.freeBlockCount(),
+                    manager.externalFragmentation() * 100, manager.processSizes().size(), elapsed / 1e6);
+        }
+        System.out.println("Checkpoints: " + timeline.checkpointCount() + " a cada " + timeline.getInterval() + " operações");
+    }
+}
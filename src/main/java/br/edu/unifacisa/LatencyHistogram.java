@@ -0,0 +1,95 @@
+package br.edu.unifacisa;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// Histograma de latências em escala log-linear, no estilo do HdrHistogram: valores até 127 têm faixa própria e,
+// acima disso, cada potência de 2 é dividida em 64 faixas (erro relativo menor que 1,6%). O vetor de contagens
+// é fixo, então record() não aloca nada e custa alguns deslocamentos de bits.
+public class LatencyHistogram {
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;   // faixas exatas 0..127
+    private static final int HALF = SUB_COUNT / 2;        // faixas por potência de 2 acima disso
+    private static final int BUCKETS = SUB_COUNT + (64 - SUB_BITS) * HALF;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[index(value)]++;
+        total++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    public long min() {
+        return total == 0 ? 0 : min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        return total == 0 ? 0 : (double) sum / total;
+    }
+
+    // Menor valor v tal que pelo menos percentile% das amostras são <= v (limite superior da faixa)
+    public long percentile(double percentile) {
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(max, upperBound(i));
+        }
+        return max;
+    }
+
+    // Soma as amostras de outro histograma neste (ex.: juntar threads ou execuções)
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) counts[i] += other.counts[i];
+        total += other.total;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    // Resumo em uma linha, em nanossegundos
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "n=%d média=%.0fns p50=%dns p90=%dns p99=%dns p99.9=%dns máx=%dns",
+                total, mean(), percentile(50), percentile(90), percentile(99), percentile(99.9), max);
+    }
+
+    private static int index(long value) {
+        if (value < SUB_COUNT) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+        int mantissa = (int) (value >>> exponent); // em [64, 128)
+        return SUB_COUNT + (exponent - 1) * HALF + (mantissa - HALF);
+    }
+
+    private static long upperBound(int index) {
+        if (index < SUB_COUNT) return index;
+        int exponent = (index - SUB_COUNT) / HALF + 1;
+        long mantissa = (index - SUB_COUNT) % HALF + HALF;
+        return ((mantissa + 1) << exponent) - 1;
+    }
+}
@@ -3,12 +3,15 @@ package br.edu.unifacisa;
 import javax.swing.*;
 
 public class Main {
+    // Argumentos opcionais: [memória total em KB] [tamanho da unidade em KB]
     public static void main(String[] args) {
+        int totalKb = args.length > 0 ? Integer.parseInt(args[0]) : MemoryManager.DEFAULT_TOTAL_KB;
+        int unitKb = args.length > 1 ? Integer.parseInt(args[1]) : MemoryManager.DEFAULT_UNIT_KB;
         SwingUtilities.invokeLater(() -> {
             try {
                 UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
             } catch (Exception ignored) {}
-            new SimulatorFrame().setVisible(true);
+            new SimulatorFrame(totalKb, unitKb).setVisible(true);
         });
     }
 }
\ No newline at end of file
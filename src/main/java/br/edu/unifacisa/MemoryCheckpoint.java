@@ -0,0 +1,75 @@
+package br.edu.unifacisa;
+
+// Cópia do estado de um MemoryManager (estratégias sobre a BlockTree) em vetores primitivos, uma coluna por campo:
+// blocos em ordem de endereço e processos na ordem em que apareceram, com os nomes guardados uma vez só.
+// Custa O(blocos + processos) para tirar e para restaurar (MemoryManager.checkpoint() / restore()) e não
+// compartilha nada com o manager, então continua válida depois que ele muda.
+public final class MemoryCheckpoint {
+    final int totalKb;
+    final int unitKb;
+    final String algorithmName;
+    final long steps;
+    final long requestedKb;
+    final long splits, coalesces;
+    final long relocatedKb, relocatedBlocks, compactions;
+    final long compactionCreditKb;
+    final int lastNextFitPosition;
+    // blocos: início, tamanho e dono (índice em processNames, -1 livre)
+    final int[] blockStart;
+    final int[] blockSize;
+    final int[] blockOwner;
+    // processos: nome e KB pedidos (antes do alinhamento)
+    final String[] processNames;
+    final int[] processRequestedKb;
+    // início dos blocos liberados à espera da junção adiada (MemoryManager.setDeferredCoalescing)
+    final int[] pendingCoalesce;
+
+    MemoryCheckpoint(int totalKb, int unitKb, String algorithmName, long steps, long requestedKb, long splits,
+                     long coalesces, long relocatedKb, long relocatedBlocks, long compactions, long compactionCreditKb,
+                     int lastNextFitPosition, int[] blockStart, int[] blockSize, int[] blockOwner,
+                     String[] processNames, int[] processRequestedKb, int[] pendingCoalesce) {
+        this.totalKb = totalKb;
+        this.unitKb = unitKb;
+        this.algorithmName = algorithmName;
+        this.steps = steps;
+        this.requestedKb = requestedKb;
+        this.splits = splits;
+        this.coalesces = coalesces;
+        this.relocatedKb = relocatedKb;
+        this.relocatedBlocks = relocatedBlocks;
+        this.compactions = compactions;
+        this.compactionCreditKb = compactionCreditKb;
+        this.lastNextFitPosition = lastNextFitPosition;
+        this.blockStart = blockStart;
+        this.blockSize = blockSize;
+        this.blockOwner = blockOwner;
+        this.processNames = processNames;
+        this.processRequestedKb = processRequestedKb;
+        this.pendingCoalesce = pendingCoalesce;
+    }
+
+    public int getTotalKb() {
+        return totalKb;
+    }
+
+    public int getUnitKb() {
+        return unitKb;
+    }
+
+    public String getAlgorithmName() {
+        return algorithmName;
+    }
+
+    // Passos do manager no momento da cópia
+    public long getSteps() {
+        return steps;
+    }
+
+    public int blockCount() {
+        return blockStart.length;
+    }
+
+    public int processCount() {
+        return processNames.length;
+    }
+}
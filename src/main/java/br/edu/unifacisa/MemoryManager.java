@@ -1,163 +1,812 @@
 package br.edu.unifacisa;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class MemoryManager {
-    public static final int TOTAL_KB = 128;
-    public static final int UNIT_KB = 2;                 // unidade endereçável
-    public static final int UNITS = TOTAL_KB / UNIT_KB;  // 64 unidades de 2KB cada
+    public static final int DEFAULT_TOTAL_KB = 128;
+    public static final int DEFAULT_UNIT_KB = 2;        // unidade endereçável padrão
+    public static final int DIRTY_CHUNK_UNITS = 1024;  // granularidade do controle de regiões alteradas
 
-    // Lista encadeada para blocos de memória (ordenados por endereço)
-    private final LinkedList<MemoryBlock> blocks = new LinkedList<>();
+    private final int totalKb;
+    private final int unitKb;
+    private final int units;
+
+    // Árvore de blocos de memória ordenados por endereço, com o maior bloco livre de cada subárvore
+    private final BlockTree blocks = new BlockTree();
+    // Índice dos blocos livres por tamanho, mantido junto com a árvore a cada divisão/junção
+    private final FreeBlockIndex freeIndex = new FreeBlockIndex();
+    // Processos internados como handles inteiros e os blocos ocupados de cada um
+    private final ProcessIndex processes = new ProcessIndex();
     private AllocationAlgorithm algorithm;
+    // Motor com estrutura própria (ex.: Buddy); quando presente substitui a BlockTree e o algorithm
+    private AllocatorEngine engine;
     private int lastNextFitPosition = 0; // índice onde o Next Fit parou
-    private int steps = 0;
+    private long steps = 0;
+    private long requestedKb = 0; // KB pedidos pelos processos em memória, antes de alinhar
+    // Contadores da BlockTree atualizados a cada divisão/junção, para ler ocupação em O(1)
+    private int freeTotalKb;
+    private int freeBlocks;
+    private int[] ownerOrderScratch = new int[0]; // reaproveitado por snapshotUnitOwners
+    private long splits, coalesces; // divisões e junções da BlockTree desde o reset
+    private AllocatorMetrics metrics; // null: sem medição
+    private ProcessListener processListener; // null: ninguém acompanha a lista de processos
+    private CompactionPolicy compaction = CompactionPolicy.none();
+    private long compactionCreditKb;  // INCREMENTAL: KB que ainda podem ser deslocados
+    private long relocatedKb, relocatedBlocks, compactions; // custo de relocação desde o reset
+    // Junção adiada: início (KB) dos blocos liberados sem juntar com os vizinhos, na ordem de liberação
+    private int deferredThreshold; // 0: junção imediata
+    private int[] quickList = new int[64];
+    private int quickCount;
+    private boolean batchFreeing;  // dentro de freeAll: a junção fica para o fim do lote
+    // por faixa de DIRTY_CHUNK_UNITS unidades: época da última mudança de dono (para redesenhar só o que mudou)
+    private final long[] chunkVersion;
+    private long epoch;
 
     public MemoryManager(AllocationAlgorithm initialAlgorithm) {
+        this(DEFAULT_TOTAL_KB, DEFAULT_UNIT_KB, initialAlgorithm);
+    }
+
+    public MemoryManager(int totalKb, int unitKb, AllocationAlgorithm initialAlgorithm) {
+        if (unitKb <= 0 || totalKb <= 0 || totalKb % unitKb != 0) {
+            throw new IllegalArgumentException("Memória de " + totalKb + "KB não é múltiplo positivo da unidade de " + unitKb + "KB");
+        }
+        this.totalKb = totalKb;
+        this.unitKb = unitKb;
+        this.units = totalKb / unitKb;
+        this.chunkVersion = new long[(units + DIRTY_CHUNK_UNITS - 1) / DIRTY_CHUNK_UNITS];
         this.algorithm = initialAlgorithm;
         reset();
     }
 
+    // Troca a estratégia de busca; se um motor próprio estava ativo, a memória volta vazia para a BlockTree
     public void setAlgorithm(AllocationAlgorithm algo) {
         this.algorithm = algo;
+        if (engine != null) {
+            engine = null;
+            reset();
+        } else if (!deferring()) {
+            coalesce();
+        }
+    }
+
+    // Passa a alocar pelo motor informado; a memória é reiniciada porque o motor mantém o próprio layout
+    public void setEngine(AllocatorEngine engine) {
+        this.engine = engine;
+        reset();
+    }
+
+    public String getAlgorithmName() {
+        return engine != null ? engine.getName() : algorithm.getName();
     }
 
     // Resetar memória
     public void reset() {
         blocks.clear();
-        blocks.add(new MemoryBlock(0, TOTAL_KB, true, null));
+        freeIndex.clear();
+        processes.clear();
+        blocks.add(blocks.newNode(0, totalKb, BlockTree.FREE));
+        freeIndex.add(0, totalKb);
+        if (engine != null) engine.reset(totalKb, unitKb);
         lastNextFitPosition = 0;
         steps = 0;
+        requestedKb = 0;
+        freeTotalKb = totalKb;
+        freeBlocks = 1;
+        splits = 0;
+        coalesces = 0;
+        compactionCreditKb = 0;
+        relocatedKb = 0;
+        relocatedBlocks = 0;
+        compactions = 0;
+        quickCount = 0;
+        Arrays.fill(chunkVersion, ++epoch);
+        if (processListener != null) processListener.onProcessesCleared();
+    }
+
+    // Registra quem recebe as medições de cada operação; null desliga (padrão)
+    public void setMetrics(AllocatorMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public AllocatorMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Política de compactação automática (padrão: nenhuma)
+    public void setCompaction(CompactionPolicy policy) {
+        this.compaction = policy == null ? CompactionPolicy.none() : policy;
+        compactionCreditKb = 0;
+    }
+
+    public CompactionPolicy getCompaction() {
+        return compaction;
+    }
+
+    // KB copiados por relocação de blocos desde o reset (o custo da compactação)
+    public long getRelocatedKb() {
+        return relocatedKb;
     }
 
-    public int getSteps() {
+    public long getRelocatedBlocks() {
+        return relocatedBlocks;
+    }
+
+    // Compactações completas feitas (manuais, na falha ou pelo limite de fragmentação)
+    public long getCompactions() {
+        return compactions;
+    }
+
+    // Desliza todos os blocos ocupados para o início, deixando um único bloco livre no fim; devolve os KB
+    // deslocados. Nos motores próprios não faz nada (eles não relocam blocos).
+    public int compact() {
+        if (engine != null) return 0;
+        coalesce();
+        int moved = 0;
+        int i = blocks.firstFit(1, 0);
+        while (i >= 0 && i + 1 < blocks.size()) {
+            moved += slideDown(i);
+            i++; // o livre (já juntado com o próximo livre) ficou uma posição adiante
+        }
+        if (moved > 0) compactions++;
+        return moved;
+    }
+
+    // Junção adiada dos blocos livres (só nas estratégias sobre a BlockTree): free() deixa o bloco livre sem
+    // juntar com os vizinhos e guarda o início dele numa lista rápida. A junção acontece de uma vez em
+    // coalesce(), chamada quando uma alocação não encontra bloco, quando a lista chega a threshold blocos ou
+    // antes de compactar. Em rajadas de liberações seguidas de alocações do mesmo tamanho, os blocos são
+    // reaproveitados inteiros sem juntar e dividir de novo. threshold 0 volta à junção imediata.
+    // Com compactação INCREMENTAL ou THRESHOLD a junção também acontece quando um passo de compactação vai rodar
+    // (ou quando a fragmentação medida sem juntar passa do limite, para confirmar), já que deslizar blocos exige os
+    // livres vizinhos juntos; nas demais operações os pendentes continuam na lista. No Next Fit o limite fica
+    // guardado, mas a junção é imediata (ver deferring()).
+    public void setDeferredCoalescing(int threshold) {
+        if (threshold < 0) throw new IllegalArgumentException("Limite negativo: " + threshold);
+        deferredThreshold = threshold;
+        if (!deferring()) coalesce();
+    }
+
+    public int getDeferredCoalescing() {
+        return deferredThreshold;
+    }
+
+    // A junção adiada só vale fora do Next Fit: o ponteiro dele avança sobre os livres recém-liberados e os divide
+    // antes que sejam reaproveitados inteiros, então adiar só acumula divisões e junções (CoalescingBenchmark)
+    private boolean deferring() {
+        return deferredThreshold > 0 && !(algorithm instanceof NextFit);
+    }
+
+    // Blocos liberados que ainda esperam a junção
+    public int pendingCoalesces() {
+        return quickCount;
+    }
+
+    // Junta todos os livres vizinhos pendentes e devolve quantas junções fez
+    public int coalesce() {
+        if (quickCount == 0) return 0;
+        long before = coalesces;
+        for (int k = 0; k < quickCount; k++) {
+            int i = blocks.indexOfStart(quickList[k]);
+            // o bloco pode ter sido realocado ou já engolido pela junção de um vizinho
+            if (i >= 0 && blocks.isFree(blocks.nodeAt(i))) mergeFreeRun(i);
+        }
+        quickCount = 0;
+        return (int) (coalesces - before);
+    }
+
+    // Aloca cada processId[i] com sizesKb[i] em ordem; results (opcional) recebe o resultado de cada um.
+    // Devolve quantas alocações deram certo.
+    public int allocateAll(String[] processIds, int[] sizesKb, boolean[] results) {
+        if (processIds.length != sizesKb.length) throw new IllegalArgumentException("Quantidade de IDs e tamanhos difere");
+        int allocated = 0;
+        for (int i = 0; i < processIds.length; i++) {
+            boolean ok = allocate(processIds[i], sizesKb[i]);
+            if (results != null) results[i] = ok;
+            if (ok) allocated++;
+        }
+        return allocated;
+    }
+
+    // Libera todos os processos do lote e devolve o total liberado em KB. Mesmo com junção imediata, os blocos
+    // liberados só são juntados no fim do lote, uma vez por sequência de livres vizinhos.
+    public int freeAll(String[] processIds) {
+        boolean outer = batchFreeing;
+        batchFreeing = true;
+        int released = 0;
+        try {
+            for (String processId : processIds) released += free(processId);
+        } finally {
+            batchFreeing = outer;
+        }
+        if (!deferring() && !outer) coalesce();
+        return released;
+    }
+
+    // Checkpoints só existem para as estratégias sobre a BlockTree: os motores próprios guardam o layout em
+    // estruturas internas que não sabem reconstruir bloco a bloco
+    public boolean supportsCheckpoints() {
+        return engine == null;
+    }
+
+    // Cópia do estado atual em vetores primitivos (O(blocos + processos))
+    public MemoryCheckpoint checkpoint() {
+        if (engine != null) throw new UnsupportedOperationException("O motor " + engine.getName() + " não permite checkpoint");
+        if (ownerOrderScratch.length < processes.capacity()) ownerOrderScratch = new int[processes.capacity()];
+        int[] processIndex = ownerOrderScratch;
+        int processCount = processes.allocatedKbByProcess().size();
+        String[] names = new String[processCount];
+        int[] requested = new int[processCount];
+        int[] next = {0};
+        processes.forEachProcess(handle -> {
+            processIndex[handle] = next[0];
+            names[next[0]] = processes.name(handle);
+            requested[next[0]++] = processes.requestedKb(handle);
+        });
+
+        int blockCount = blocks.size();
+        int[] start = new int[blockCount];
+        int[] size = new int[blockCount];
+        int[] owner = new int[blockCount];
+        int[] i = {0};
+        blocks.forEach(b -> {
+            start[i[0]] = blocks.startKb(b);
+            size[i[0]] = blocks.sizeKb(b);
+            owner[i[0]++] = blocks.isFree(b) ? -1 : processIndex[blocks.owner(b)];
+        });
+        return new MemoryCheckpoint(totalKb, unitKb, getAlgorithmName(), steps, requestedKb, splits, coalesces,
+                relocatedKb, relocatedBlocks, compactions, compactionCreditKb, lastNextFitPosition,
+                start, size, owner, names, requested, Arrays.copyOf(quickList, quickCount));
+    }
+
+    // Volta ao estado do checkpoint (mesma memória e unidade); a estratégia atual é mantida
+    public void restore(MemoryCheckpoint c) {
+        if (engine != null) throw new UnsupportedOperationException("O motor " + engine.getName() + " não permite checkpoint");
+        if (c.totalKb != totalKb || c.unitKb != unitKb) {
+            throw new IllegalArgumentException("Checkpoint de " + c.totalKb + "KB/" + c.unitKb + "KB não serve para "
+                    + totalKb + "KB/" + unitKb + "KB");
+        }
+        blocks.clear();
+        freeIndex.clear();
+        processes.clear();
+        int[] handles = new int[c.processNames.length];
+        int[] pendingRequested = c.processRequestedKb.clone(); // o pedido inteiro vai junto do primeiro bloco
+        for (int p = 0; p < handles.length; p++) handles[p] = processes.intern(c.processNames[p]);
+        freeTotalKb = 0;
+        freeBlocks = 0;
+        // as árvores são montadas de uma vez (O(n)) a partir das colunas, que já estão em ordem de endereço
+        int count = c.blockStart.length;
+        int[] nodes = new int[count];
+        int[] freeStart = new int[count];
+        int[] freeSize = new int[count];
+        for (int b = 0; b < count; b++) {
+            int p = c.blockOwner[b];
+            int node = blocks.newNode(c.blockStart[b], c.blockSize[b], p < 0 ? BlockTree.FREE : handles[p]);
+            nodes[b] = node;
+            if (p < 0) {
+                freeStart[freeBlocks] = c.blockStart[b];
+                freeSize[freeBlocks++] = c.blockSize[b];
+                freeTotalKb += c.blockSize[b];
+            } else {
+                processes.add(handles[p], node, c.blockSize[b], pendingRequested[p]);
+                pendingRequested[p] = 0;
+            }
+        }
+        blocks.addAll(nodes, count);
+        freeIndex.addAll(freeStart, freeSize, freeBlocks);
+        steps = c.steps;
+        requestedKb = c.requestedKb;
+        splits = c.splits;
+        coalesces = c.coalesces;
+        relocatedKb = c.relocatedKb;
+        relocatedBlocks = c.relocatedBlocks;
+        compactions = c.compactions;
+        compactionCreditKb = c.compactionCreditKb;
+        lastNextFitPosition = c.lastNextFitPosition;
+        quickList = Arrays.copyOf(c.pendingCoalesce, Math.max(64, c.pendingCoalesce.length));
+        quickCount = c.pendingCoalesce.length;
+        Arrays.fill(chunkVersion, ++epoch);
+        if (processListener != null) {
+            processListener.onProcessesCleared();
+            for (String name : c.processNames) processListener.onProcessChanged(name, processes.allocatedKb(name));
+        }
+    }
+
+    // Registra quem é avisado a cada processo que entra, cresce ou sai da memória; null desliga (padrão)
+    public void setProcessListener(ProcessListener listener) {
+        this.processListener = listener;
+    }
+
+    // Divisões de blocos livres desde o reset (no motor próprio, as do motor)
+    public long getSplits() {
+        return engine != null ? engine.splitCount() : splits;
+    }
+
+    // Junções de blocos livres vizinhos desde o reset
+    public long getCoalesces() {
+        return engine != null ? engine.coalesceCount() : coalesces;
+    }
+
+    public long getSteps() {
         return steps;
     }
 
-    // Arredondar para múltiplo de UNIT_KB (2KB) números pares
-    public static int align(int kb) {
-        if (kb % UNIT_KB == 0) return kb;
-        return kb + (UNIT_KB - (kb % UNIT_KB));
+    public int getTotalKb() {
+        return totalKb;
+    }
+
+    // Maior pedido que pode caber algum dia (a memória inteira, ou o maior bloco que o motor consegue formar)
+    public int maxBlockKb() {
+        return engine != null ? engine.maxBlockKb() : totalKb;
+    }
+
+    public int getUnitKb() {
+        return unitKb;
+    }
+
+    public int getUnits() {
+        return units;
+    }
+
+    // Arredondar para múltiplo de unitKb
+    public int align(int kb) {
+        if (kb % unitKb == 0) return kb;
+        return kb + (unitKb - (kb % unitKb));
     }
 
     // Alocar memória adjacente para um processo, retorna true se alocou
     public boolean allocate(String processId, int sizeKb) {
+        if (metrics == null) return notifyAllocated(processId, allocateUnmeasured(processId, sizeKb));
+        long inspectedBefore = blocks.inspectedNodes() + freeIndex.inspectedNodes();
+        long splitsBefore = getSplits();
+        long start = System.nanoTime();
+        boolean allocated = allocateUnmeasured(processId, sizeKb);
+        long nanos = System.nanoTime() - start;
+        int required = align(sizeKb);
+        metrics.onAllocate(nanos, required, allocated, allocated || freeKb() >= required,
+                (int) (blocks.inspectedNodes() + freeIndex.inspectedNodes() - inspectedBefore),
+                (int) (getSplits() - splitsBefore));
+        return notifyAllocated(processId, allocated);
+    }
+
+    // Libera todos os blocos pertencentes ao processId, retorna total liberado em KB
+    public int free(String processId) {
+        if (metrics == null) return notifyReleased(processId, freeUnmeasured(processId));
+        long coalescesBefore = getCoalesces();
+        long start = System.nanoTime();
+        int released = freeUnmeasured(processId);
+        long nanos = System.nanoTime() - start;
+        metrics.onFree(nanos, released, (int) (getCoalesces() - coalescesBefore));
+        return notifyReleased(processId, released);
+    }
+
+    private boolean notifyAllocated(String processId, boolean allocated) {
+        if (allocated && processListener != null) {
+            processListener.onProcessChanged(processId, processes.allocatedKb(processId));
+        }
+        return allocated;
+    }
+
+    private int notifyReleased(String processId, int released) {
+        if (released > 0 && processListener != null) processListener.onProcessChanged(processId, 0);
+        return released;
+    }
+
+    private boolean allocateUnmeasured(String processId, int sizeKb) {
         steps++;
         int required = align(sizeKb);
+        if (required <= 0) return false; // bloco vazio não ocupa memória
+        if (engine != null) return allocateWithEngine(processId, sizeKb, required);
 
-        int index = algorithm.chooseIndex(blocks, required, lastNextFitPosition);
-        if (index < 0) return false;
+        int index = algorithm.chooseIndex(blocks, freeIndex, required, lastNextFitPosition);
+        if (index < 0 && quickCount > 0 && freeTotalKb >= required) {
+            // com junção adiada o espaço pode estar picado em livres vizinhos: junta e procura de novo
+            coalesce();
+            index = algorithm.chooseIndex(blocks, freeIndex, required, lastNextFitPosition);
+        }
+        if (index < 0 && compaction.mode == CompactionPolicy.Mode.STOP_THE_WORLD && freeTotalKb >= required) {
+            // falha só por fragmentação: compacta tudo e procura de novo no bloco livre único
+            compact();
+            index = algorithm.chooseIndex(blocks, freeIndex, required, lastNextFitPosition);
+        }
+        if (index < 0) {
+            afterOperation();
+            return false;
+        }
 
-        MemoryBlock block = blocks.get(index);
-        if (!block.free || block.sizeKb < required) return false;
+        int block = blocks.nodeAt(index);
+        if (!blocks.isFree(block) || blocks.sizeKb(block) < required) {
+            afterOperation();
+            return false;
+        }
 
-        if (block.sizeKb == required) {
-            allocateExact(block, processId);
+        int owner = processes.intern(processId);
+        if (blocks.sizeKb(block) == required) {
+            allocateExact(index, block, owner, sizeKb);
         } else {
-            allocateSplit(index, block, processId, required);
+            allocateSplit(index, block, owner, required, sizeKb);
         }
+        requestedKb += sizeKb;
         lastNextFitPosition = index; // Next Fit continua após a posição alocada
+        afterOperation();
         return true;
     }
 
-    // Libera todos os blocos pertencentes ao processId, retorna total liberado em KB
-    public int free(String processId) {
+    private boolean allocateWithEngine(String processId, int sizeKb, int required) {
+        int start = engine.allocate(required);
+        if (start < 0) return false;
+        // nos motores próprios o bloco é identificado pela unidade inicial
+        processes.add(processes.intern(processId), start / unitKb, engine.blockSizeKb(start), sizeKb);
+        markDirty(start, engine.blockSizeKb(start));
+        requestedKb += sizeKb;
+        return true;
+    }
+
+    private int freeUnmeasured(String processId) {
         steps++;
+        int owner = processes.handleOf(processId);
+        if (owner == ProcessIndex.NONE) return 0;
         int releasedKB = 0;
+        requestedKb -= processes.requestedKb(owner);
 
-        for (int i = 0; i < blocks.size(); i++) {
-            MemoryBlock b = blocks.get(i);
-            if (!b.free && Objects.equals(b.processId, processId)) {
-                // marca como livre
-                b.free = true;
-                b.processId = null;
-                releasedKB += b.sizeKb;
-
-                // junta com vizinhos livres para reduzir fragmentação
-                i = joinAround(i);
+        if (engine != null) {
+            for (int u = processes.firstBlock(owner); u != BlockTree.NIL; u = processes.nextOwned(u)) {
+                markDirty(u * unitKb, engine.blockSizeKb(u * unitKb));
+                releasedKB += engine.release(u * unitKb);
             }
+            processes.release(owner);
+            return releasedKB;
+        }
+
+        // visita só os blocos do processo; cada um é localizado na árvore pelo endereço
+        int b = processes.firstBlock(owner);
+        while (b != BlockTree.NIL) {
+            int next = processes.nextOwned(b); // lido antes: a junção pode reciclar o nó
+            int i = blocks.indexOf(b);
+            // marca como livre
+            blocks.setOwner(b, BlockTree.FREE);
+            releasedKB += blocks.sizeKb(b);
+            freeTotalKb += blocks.sizeKb(b);
+            markDirty(blocks.startKb(b), blocks.sizeKb(b));
+
+            // junta com vizinhos livres para reduzir fragmentação (ou adia a junção)
+            if (deferring() || batchFreeing) deferJoin(i, b);
+            else joinAround(i);
+            b = next;
         }
+        processes.release(owner);
+        if (deferring() && quickCount >= deferredThreshold) coalesce();
+        afterOperation();
         return releasedKB;
     }
 
+    // Compactação automática depois de cada operação sobre a BlockTree
+    private void afterOperation() {
+        switch (compaction.mode) {
+            case INCREMENTAL -> compactIncrementally();
+            case THRESHOLD -> {
+                // sem juntar os pendentes a fragmentação medida só pode ser maior: junta e confere só se passou
+                if (externalFragmentation() > compaction.threshold && (coalesce() == 0 || externalFragmentation() > compaction.threshold)) {
+                    compact();
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    // Gasta o crédito acumulado deslocando blocos a partir do primeiro livre; sem nada a deslocar o crédito zera
+    private void compactIncrementally() {
+        compactionCreditKb += compaction.budgetKb;
+        // junta os pendentes só se algum bloco vai ser deslizado: o primeiro ocupado depois do primeiro livre
+        int i = blocks.firstFit(1, 0);
+        int occupied = i;
+        while (occupied >= 0 && occupied < blocks.size() && blocks.isFree(blocks.nodeAt(occupied))) occupied++;
+        if (occupied < 0 || occupied >= blocks.size()) {
+            compactionCreditKb = 0; // memória já compacta
+            return;
+        }
+        if (blocks.sizeKb(blocks.nodeAt(occupied)) > compactionCreditKb) return;
+        if (quickCount > 0) {
+            coalesce();
+            i = blocks.firstFit(1, 0);
+        }
+        while (i >= 0 && i + 1 < blocks.size()) {
+            int next = blocks.sizeKb(blocks.nodeAt(i + 1));
+            if (next > compactionCreditKb) return; // bloco maior que o crédito: espera as próximas operações
+            compactionCreditKb -= slideDown(i);
+            i++;
+        }
+        compactionCreditKb = 0; // memória já compacta
+    }
+
+    // Troca o bloco livre em i com o bloco ocupado logo depois dele: o ocupado desce para o início do livre e o
+    // livre sobe, juntando-se ao próximo livre se houver. Devolve os KB copiados.
+    private int slideDown(int i) {
+        int free = blocks.nodeAt(i);
+        int moved = blocks.nodeAt(i + 1);
+        int freeStart = blocks.startKb(free);
+        int freeSize = blocks.sizeKb(free);
+        int movedSize = blocks.sizeKb(moved);
+        freeIndex.remove(freeStart, freeSize);
+        blocks.remove(i); // o ocupado passa para a posição i; o nó continua o mesmo (ProcessIndex aponta para ele)
+        blocks.setStartKb(moved, freeStart);
+        blocks.add(i + 1, blocks.newNode(freeStart + movedSize, freeSize, BlockTree.FREE));
+        freeBlocks--; // joinAround conta o livre como novo
+        joinAround(i + 1);
+        markDirty(freeStart, movedSize + freeSize);
+        relocatedKb += movedSize;
+        relocatedBlocks++;
+        return movedSize;
+    }
+
+    // KB alocados por processo, na ordem em que os processos apareceram (somente leitura)
+    public Map<String, Integer> processSizes() {
+        return processes.allocatedKbByProcess();
+    }
+
     public List<MemoryBlock> snapshotBlocks() {
-        return blocks.stream().map(MemoryBlock::copy).collect(Collectors.toList());
+        if (engine != null) return snapshotEngineBlocks();
+        List<MemoryBlock> copy = new ArrayList<>(blocks.size());
+        blocks.forEach(b -> copy.add(toMemoryBlock(b)));
+        return copy;
     }
 
-    // Mapa por unidade (2KB): -1 livre; >=0 índice do processo na ordem observada (para cores/legenda)
+    // Mapa por unidade: -1 livre; >=0 índice do processo na ordem observada (para cores/legenda)
     public int[] snapshotUnitOwners(List<String> processIdOrderOut) {
-        Map<String, Integer> processIdIndex = new LinkedHashMap<>();
+        return snapshotUnitOwners(null, processIdOrderOut);
+    }
+
+    // Igual ao anterior, mas preenche reuse quando ele tem o tamanho certo (quem repinta sempre não aloca)
+    public int[] snapshotUnitOwners(int[] reuse, List<String> processIdOrderOut) {
+        if (ownerOrderScratch.length < processes.capacity()) ownerOrderScratch = new int[processes.capacity()];
+        int[] processIdIndex = ownerOrderScratch;
+        Arrays.fill(processIdIndex, -1);
         processIdOrderOut.clear();
 
-        int[] units = new int[UNITS];
-        Arrays.fill(units, -1);
-
-        for (MemoryBlock b : blocks) {
-            if (!b.free && b.sizeKb > 0) {
-                int pidIdx = processIdIndex.computeIfAbsent(b.processId, k -> {
-                    processIdOrderOut.add(k);
-                    return processIdOrderOut.size() - 1;
-                });
-                int startUnit = b.startKb / UNIT_KB;
-                int unitCount = b.sizeKb / UNIT_KB;
-                for (int u = 0; u < unitCount; u++) {
-                    int pos = startUnit + u;
-                    if (pos >= 0 && pos < UNITS) units[pos] = pidIdx;
+        int[] unitOwners = reuse != null && reuse.length == units ? reuse : new int[units];
+        Arrays.fill(unitOwners, -1);
+
+        if (engine != null) {
+            // sem árvore de blocos: percorre os blocos de cada processo
+            processes.forEachProcess(owner -> {
+                processIdOrderOut.add(processes.name(owner));
+                int idx = processIdOrderOut.size() - 1;
+                for (int u = processes.firstBlock(owner); u != BlockTree.NIL; u = processes.nextOwned(u)) {
+                    int unitCount = engine.blockSizeKb(u * unitKb) / unitKb;
+                    Arrays.fill(unitOwners, u, Math.min(u + unitCount, units), idx);
+                }
+            });
+            return unitOwners;
+        }
+
+        blocks.forEach(b -> {
+            int owner = blocks.owner(b);
+            if (owner != BlockTree.FREE && blocks.sizeKb(b) > 0) {
+                if (processIdIndex[owner] < 0) {
+                    processIdOrderOut.add(processes.name(owner));
+                    processIdIndex[owner] = processIdOrderOut.size() - 1;
+                }
+                int startUnit = blocks.startKb(b) / unitKb;
+                int unitCount = blocks.sizeKb(b) / unitKb;
+                Arrays.fill(unitOwners, startUnit, Math.min(startUnit + unitCount, units), processIdIndex[owner]);
+            }
+        });
+        return unitOwners;
+    }
+
+    // Dono de cada unidade como handle estável do processo (-1 livre), só nas faixas pedidas: chunks[c] recebe as
+    // unidades da faixa c de DIRTY_CHUNK_UNITS para cada c em dirty[0..count) e as demais posições de chunks devem
+    // ser null. O handle só muda quando a unidade
+    // muda de dono, então serve para cores que não trocam entre quadros. Na BlockTree o custo é o dos blocos dentro
+    // das faixas; nos motores próprios é uma passada pelos blocos ocupados.
+    public void snapshotUnitHandles(int[][] chunks, int[] dirty, int count) {
+        for (int k = 0; k < count; k++) Arrays.fill(chunks[dirty[k]], -1);
+        if (count == 0) return;
+        if (engine != null) {
+            processes.forEachProcess(owner -> {
+                for (int u = processes.firstBlock(owner); u != BlockTree.NIL; u = processes.nextOwned(u)) {
+                    fillChunks(chunks, u, Math.min(u + engine.blockSizeKb(u * unitKb) / unitKb, units), owner);
                 }
+            });
+            return;
+        }
+        for (int k = 0; k < count; k++) {
+            int firstUnit = dirty[k] * DIRTY_CHUNK_UNITS;
+            int endUnit = Math.min(firstUnit + DIRTY_CHUNK_UNITS, units);
+            int size = blocks.size();
+            for (int i = blocks.indexAtAddress(firstUnit * unitKb); i >= 0 && i < size; i++) {
+                int b = blocks.nodeAt(i);
+                int startUnit = blocks.startKb(b) / unitKb;
+                if (startUnit >= endUnit) break;
+                int owner = blocks.owner(b);
+                if (owner == BlockTree.FREE) continue;
+                int from = Math.max(startUnit, firstUnit);
+                int to = Math.min(startUnit + blocks.sizeKb(b) / unitKb, endUnit);
+                if (from < to) Arrays.fill(chunks[dirty[k]], from - firstUnit, to - firstUnit, owner);
             }
         }
-        return units;
+    }
+
+    // Preenche [fromUnit, toUnit) com owner nas faixas que estão sendo recopiadas (as não null)
+    private static void fillChunks(int[][] chunks, int fromUnit, int toUnit, int owner) {
+        for (int u = fromUnit; u < toUnit; ) {
+            int c = u / DIRTY_CHUNK_UNITS;
+            int end = Math.min(toUnit, (c + 1) * DIRTY_CHUNK_UNITS);
+            int[] chunk = chunks[c];
+            if (chunk != null) Arrays.fill(chunk, u - c * DIRTY_CHUNK_UNITS, end - c * DIRTY_CHUNK_UNITS, owner);
+            u = end;
+        }
+    }
+
+    // Cópia das épocas de mudança por faixa de DIRTY_CHUNK_UNITS unidades; faixas com a mesma época em dois
+    // retratos não mudaram entre eles
+    public long[] snapshotChunkVersions() {
+        return chunkVersion.clone();
     }
 
     public int usedKb() {
-        int used = 0;
-        for (MemoryBlock b : blocks) if (!b.free) used += b.sizeKb;
-        return used;
+        return totalKb - freeKb();
     }
 
     public int freeKb() {
-        int free = 0;
-        for (MemoryBlock b : blocks) if (b.free) free += b.sizeKb;
-        return free;
+        return engine != null ? engine.freeKb() : freeTotalKb;
+    }
+
+    // Quantidade de blocos livres (com a junção imediata, nunca há dois livres vizinhos; com a adiada, os
+    // pendentes contam separados até coalesce())
+    public int freeBlockCount() {
+        return engine != null ? engine.freeBlockCount() : freeBlocks;
+    }
+
+    // Maior bloco que ainda pode ser alocado de uma vez, em KB
+    public int largestFreeKb() {
+        return engine != null ? engine.largestFreeKb() : blocks.largestFreeKb();
+    }
+
+    // Fragmentação externa: fração da memória livre que não está no maior bloco livre (0 = nada fragmentado)
+    public double externalFragmentation() {
+        int free = freeKb();
+        return free == 0 ? 0.0 : 1.0 - (double) largestFreeKb() / free;
+    }
+
+    // Fragmentação interna: KB ocupados além do que os processos pediram (alinhamento e arredondamento do motor)
+    public long internalFragmentationKb() {
+        return usedKb() - requestedKb;
+    }
+
+    // Blocos do motor em ordem de endereço, com os intervalos livres entre eles
+    private List<MemoryBlock> snapshotEngineBlocks() {
+        List<long[]> allocated = new ArrayList<>();
+        processes.forEachProcess(owner -> {
+            for (int u = processes.firstBlock(owner); u != BlockTree.NIL; u = processes.nextOwned(u)) {
+                allocated.add(new long[]{(long) u * unitKb, owner});
+            }
+        });
+        allocated.sort(Comparator.comparingLong(a -> a[0]));
+
+        List<MemoryBlock> copy = new ArrayList<>();
+        int cursor = 0;
+        for (long[] a : allocated) {
+            int start = (int) a[0];
+            int size = engine.blockSizeKb(start);
+            if (start > cursor) copy.add(new MemoryBlock(cursor, start - cursor, true, null));
+            copy.add(new MemoryBlock(start, size, false, processes.name((int) a[1])));
+            cursor = start + size;
+        }
+        if (cursor < totalKb) copy.add(new MemoryBlock(cursor, totalKb - cursor, true, null));
+        return copy;
+    }
+
+    private MemoryBlock toMemoryBlock(int b) {
+        int owner = blocks.owner(b);
+        return new MemoryBlock(blocks.startKb(b), blocks.sizeKb(b), owner == BlockTree.FREE,
+                owner == BlockTree.FREE ? null : processes.name(owner));
     }
 
     // Caso exato: ocupa o bloco inteiro
-    private static void allocateExact(MemoryBlock block, String processId) {
-        block.free = false;
-        block.processId = processId;
+    private void allocateExact(int index, int block, int owner, int requestedKb) {
+        freeIndex.remove(blocks.startKb(block), blocks.sizeKb(block));
+        blocks.setOwner(block, owner);
+        blocks.refresh(index);
+        processes.add(owner, block, blocks.sizeKb(block), requestedKb);
+        markDirty(blocks.startKb(block), blocks.sizeKb(block));
+        freeTotalKb -= blocks.sizeKb(block);
+        freeBlocks--;
     }
 
     // Caso maior: divide em [alocado][livre restante] mantendo a ordem
-    private void allocateSplit(int index, MemoryBlock freeBlock, String processId, int required) {
-        MemoryBlock allocated = new MemoryBlock(freeBlock.startKb, required, false, processId);
-        MemoryBlock remainder = new MemoryBlock(freeBlock.startKb + required, freeBlock.sizeKb - required, true, null);
-        blocks.set(index, allocated);
-        blocks.add(index + 1, remainder);
+    private void allocateSplit(int index, int freeBlock, int owner, int required, int requestedKb) {
+        int start = blocks.startKb(freeBlock);
+        int size = blocks.sizeKb(freeBlock);
+        freeIndex.remove(start, size);
+        // o nó livre passa a ser o alocado e o restante vira um nó novo logo depois dele
+        blocks.setSizeKb(freeBlock, required);
+        blocks.setOwner(freeBlock, owner);
+        blocks.refresh(index);
+        blocks.add(index + 1, blocks.newNode(start + required, size - required, BlockTree.FREE));
+        freeIndex.add(start + required, size - required);
+        // com junção pendente o bloco dividido podia ter um livre à direita: o restante herda a pendência
+        if (quickCount > 0 && index + 2 < blocks.size() && blocks.isFree(blocks.nodeAt(index + 2))) {
+            addPending(start + required);
+        }
+        processes.add(owner, freeBlock, required, requestedKb);
+        markDirty(start, required);
+        freeTotalKb -= required;
+        splits++;
     }
 
+    private void markDirty(int startKb, int sizeKb) {
+        long version = ++epoch;
+        int first = startKb / unitKb / DIRTY_CHUNK_UNITS;
+        int last = (startKb + sizeKb - 1) / unitKb / DIRTY_CHUNK_UNITS;
+        for (int c = first; c <= last && c < chunkVersion.length; c++) chunkVersion[c] = version;
+    }
+
+    // Junta o bloco recém-liberado em i com os vizinhos livres e registra o resultado no índice de livres
     private int joinAround(int i) {
-        MemoryBlock current = blocks.get(i);
+        int current = blocks.nodeAt(i);
+        freeBlocks++;
 
         // Tentar mesclar com o anterior
         if (i - 1 >= 0) {
-            MemoryBlock prev = blocks.get(i - 1);
-            if (prev.free) {
-                prev.sizeKb += current.sizeKb;
+            int prev = blocks.nodeAt(i - 1);
+            if (blocks.isFree(prev)) {
+                freeIndex.remove(blocks.startKb(prev), blocks.sizeKb(prev));
+                blocks.setSizeKb(prev, blocks.sizeKb(prev) + blocks.sizeKb(current));
                 blocks.remove(i);
                 i--; // o bloco atual agora é o 'prev'
                 current = prev;
+                freeBlocks--;
+                coalesces++;
             }
         }
 
         // Tentar mesclar com o próximo
         if (i + 1 < blocks.size()) {
-            MemoryBlock next = blocks.get(i + 1);
-            if (next.free) {
-                current.sizeKb += next.sizeKb;
+            int next = blocks.nodeAt(i + 1);
+            if (blocks.isFree(next)) {
+                freeIndex.remove(blocks.startKb(next), blocks.sizeKb(next));
+                blocks.setSizeKb(current, blocks.sizeKb(current) + blocks.sizeKb(next));
                 blocks.remove(i + 1);
+                freeBlocks--;
+                coalesces++;
             }
         }
+        blocks.refresh(i); // atualiza o maior bloco livre no caminho até a raiz
+        freeIndex.add(blocks.startKb(current), blocks.sizeKb(current));
         return i;
     }
+
+    // Registra o bloco recém-liberado em i como livre sem juntar com os vizinhos e o põe na lista rápida
+    private void deferJoin(int i, int block) {
+        blocks.refresh(i);
+        freeIndex.add(blocks.startKb(block), blocks.sizeKb(block));
+        freeBlocks++;
+        addPending(blocks.startKb(block));
+    }
+
+    private void addPending(int startKb) {
+        if (quickCount == quickList.length) quickList = Arrays.copyOf(quickList, quickCount * 2);
+        quickList[quickCount++] = startKb;
+    }
+
+    // Junta toda a sequência de blocos livres vizinhos que contém o livre em i em um bloco só
+    private void mergeFreeRun(int i) {
+        while (i > 0 && blocks.isFree(blocks.nodeAt(i - 1))) i--;
+        if (i + 1 >= blocks.size() || !blocks.isFree(blocks.nodeAt(i + 1))) return;
+        int first = blocks.nodeAt(i);
+        freeIndex.remove(blocks.startKb(first), blocks.sizeKb(first));
+        int total = blocks.sizeKb(first);
+        while (i + 1 < blocks.size() && blocks.isFree(blocks.nodeAt(i + 1))) {
+            int next = blocks.nodeAt(i + 1);
+            freeIndex.remove(blocks.startKb(next), blocks.sizeKb(next));
+            total += blocks.sizeKb(next);
+            blocks.remove(i + 1);
+            freeBlocks--;
+            coalesces++;
+        }
+        blocks.setSizeKb(first, total);
+        blocks.refresh(i);
+        freeIndex.add(blocks.startKb(first), total);
+    }
 }
@@ -2,16 +2,21 @@ package br.edu.unifacisa;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 
 
 public class MemoryPanel extends JPanel {
-    private final MemoryManager manager;
+    private static final Rectangle LEGEND_AREA = new Rectangle(0, 0, 560, 54);
     private final Color[] palette;
+    private final MemoryRenderer renderer;
+    // desenha sempre o último retrato recebido, nunca o MemoryManager direto (ele pode estar em outra thread)
+    private SimulationSnapshot snapshot;
+    private Point dragOrigin;
 
-    public MemoryPanel(MemoryManager manager) {
-        this.manager = manager;
+    public MemoryPanel(SimulationSnapshot initial) {
+        this.snapshot = initial;
         setPreferredSize(new Dimension(360, 360));
         // paleta de cores dos processos
         palette = new Color[]{
@@ -27,48 +32,100 @@ public class MemoryPanel extends JPanel {
                 new Color(0x21618C) // azul profundo
 
         };
-    }
+        int[] rgb = new int[palette.length];
+        for (int i = 0; i < palette.length; i++) rgb[i] = palette[i].getRGB() & 0xFFFFFF;
+        renderer = new MemoryRenderer(rgb, getBackground().getRGB() & 0xFFFFFF);
+        setToolTipText("Roda do mouse: zoom • arrastar: mover • duplo clique: memória inteira • botão direito: densidade/dono");
 
-    // Interface metodo de pintura do painel: desenha a memória como uma grade 8x8
-    @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        Graphics2D g2 = (Graphics2D) g;
-        int cols = 8, rows = 8;
-        int w = getWidth();
-        int h = getHeight();
-        int cellW = w / cols;
-        int cellH = h / rows;
+        // zoom em torno do cursor, arrasto para percorrer os endereços, duplo clique volta à memória inteira
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                int anchor = renderer.unitAt(e.getX(), e.getY());
+                if (anchor < 0) anchor = renderer.getViewStart() + renderer.getViewUnits() / 2;
+                renderer.zoom(Math.pow(1.25, e.getPreciseWheelRotation()), anchor);
+                redraw();
+            }
 
-        List<String> processIdOrder = new ArrayList<>();
-        int[] unitOwners = manager.snapshotUnitOwners(processIdOrder);
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragOrigin = e.getPoint();
+            }
 
-        int idx = 0;
-        for (int r = 0; r < rows; r++) {
-            for (int c = 0; c < cols; c++) {
-                int x = c * cellW;
-                int y = r * cellH;
-                int owner = unitOwners[idx++];
-                if (owner >= 0) {
-                    Color color = palette[owner % palette.length];
-                    g2.setColor(color);
-                    g2.fillRect(x + 1, y + 1, cellW - 2, cellH - 2);
-                } else {
-                    g2.setColor(new Color(240, 240, 240));
-                    g2.fillRect(x + 1, y + 1, cellW - 2, cellH - 2);
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragOrigin == null) return;
+                int startBefore = renderer.getViewStart();
+                renderer.pan(e.getX() - dragOrigin.x, e.getY() - dragOrigin.y);
+                // só consome o arrasto quando andou pelo menos uma célula
+                if (renderer.getViewStart() != startBefore) {
+                    dragOrigin = e.getPoint();
+                    redraw();
+                }
+            }
 
-                    // desenha linha diagonal riscando espaço livre quando vazio
-                    g2.setColor(new Color(200, 200, 200));
-                    g2.drawLine(x + 2, y + 2, x + cellW - 3, y + cellH - 3);
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (SwingUtilities.isRightMouseButton(e)) {
+                    setMode(getMode() == MemoryRenderer.Mode.DOMINANT ? MemoryRenderer.Mode.DENSITY : MemoryRenderer.Mode.DOMINANT);
+                } else if (e.getClickCount() == 2) {
+                    renderer.resetView();
+                    redraw();
                 }
-                g2.setColor(new Color(180, 180, 180));
-                g2.drawRect(x, y, cellW, cellH);
             }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    public void setSnapshot(SimulationSnapshot snapshot) {
+        this.snapshot = snapshot;
+        // só as células que mudaram desde o último quadro, mais a legenda (que muda a cada retrato)
+        Rectangle dirty = renderer.render(snapshot, getWidth(), getHeight());
+        if (!dirty.isEmpty()) repaint(dirty);
+        repaint(LEGEND_AREA);
+    }
+
+    public MemoryRenderer.Mode getMode() {
+        return renderer.getMode();
+    }
+
+    // Densidade de ocupação ou dono predominante quando cada pixel resume várias unidades
+    public void setMode(MemoryRenderer.Mode mode) {
+        renderer.setMode(mode);
+        redraw();
+    }
+
+    private void redraw() {
+        renderer.render(snapshot, getWidth(), getHeight());
+        repaint();
+    }
+
+    // Interface metodo de pintura do painel: copia a imagem mantida pelo renderizador e escreve a legenda por cima
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g;
+        SimulationSnapshot s = snapshot;
+        if (renderer.image() == null || renderer.image().getWidth() != Math.max(1, getWidth())
+                || renderer.image().getHeight() != Math.max(1, getHeight())) {
+            renderer.render(s, getWidth(), getHeight()); // primeiro quadro ou painel redimensionado
         }
+        g2.drawImage(renderer.image(), 0, 0, null);
 
         // legenda com o espaço total, livre e usado da memória
         int legendY = 14;
         g2.setColor(Color.DARK_GRAY);
-        g2.drawString("128KB total • 2KB/unidade • Livre: " + manager.freeKb() + "KB • Uso: " + manager.usedKb() + "KB", 8, legendY);
+        g2.drawString(s.totalKb + "KB total • " + s.unitKb + "KB/unidade • Livre: " + s.freeKb + "KB • Uso: " + s.usedKb + "KB", 8, legendY);
+        // fragmentação externa (livre fora do maior bloco) e interna (ocupado além do pedido)
+        g2.drawString(String.format("Frag. externa: %.0f%% • Frag. interna: %dKB",
+                s.externalFragmentation * 100, s.internalFragmentationKb), 8, legendY + 16);
+        // janela visível quando há zoom ou várias unidades por pixel
+        if (renderer.getViewUnits() < s.units || renderer.getUnitsPerCell() > 1) {
+            int first = renderer.getViewStart();
+            g2.drawString(String.format("Unidades %d–%d • %d por célula",
+                    first, first + renderer.getViewUnits() - 1, renderer.getUnitsPerCell()), 8, legendY + 32);
+        }
     }
-}
\ No newline at end of file
+}
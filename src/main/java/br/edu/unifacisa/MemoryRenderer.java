@@ -0,0 +1,281 @@
+package br.edu.unifacisa;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+// Desenha a memória pixel a pixel em uma BufferedImage reaproveitada entre quadros, escrevendo direto no vetor
+// de inteiros do raster (sem Graphics2D por célula).
+//
+// A área visível (viewStart, viewUnits) vira uma grade de células em ordem de endereço. Com poucas unidades cada
+// célula é um quadrado com borda, como antes; quando há mais unidades que pixels cada pixel resume
+// unitsPerCell unidades, pela densidade de ocupação ou pelo dono predominante.
+//
+// render() só recalcula as células das faixas de MemoryManager.DIRTY_CHUNK_UNITS unidades que mudaram desde o
+// retrato anterior e devolve o retângulo alterado; zoom, deslocamento, modo ou tamanho novos redesenham tudo.
+public class MemoryRenderer {
+
+    public enum Mode { DENSITY, DOMINANT }
+
+    private static final int FREE = 0xF0F0F0;
+    private static final int FREE_LINE = 0xC8C8C8;
+    private static final int BORDER = 0xB4B4B4;
+    private static final int DENSITY_FULL = 0x1B4F72;
+    private static final int MIN_BORDERED_CELL = 4; // abaixo disso a célula é só cor, sem borda nem risco
+
+    private final int[] palette;
+    private final int background;
+    private BufferedImage image;
+    private int[] pixels;
+    private int width, height;
+    private Mode mode = Mode.DOMINANT;
+    private int viewStart;
+    private int viewUnits;                // 0 = memória inteira
+    private boolean layoutChanged = true;
+    private SimulationSnapshot previous;
+
+    // layout calculado no último render
+    private int units;
+    private int unitsPerCell;
+    private int cells;
+    private int cols;
+    private int cellW, cellH;
+
+    // contagem de unidades por dono em uma célula (modo DOMINANT): tabela de endereçamento aberto reaproveitada
+    // entre as células, dimensionada em layout() para o pior caso de unitsPerCell donos diferentes
+    private int[] countOwner = new int[0];   // -1 = posição vazia
+    private int[] countUnits = new int[0];
+    private int[] countUsed = new int[0];    // posições ocupadas, para limpar só elas
+    private int countShift;
+
+    public MemoryRenderer(int[] palette, int background) {
+        this.palette = palette.clone();
+        this.background = background;
+    }
+
+    public BufferedImage image() {
+        return image;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        if (this.mode != mode) {
+            this.mode = mode;
+            layoutChanged = true;
+        }
+    }
+
+    public int getUnitsPerCell() {
+        return unitsPerCell;
+    }
+
+    public int getViewStart() {
+        return viewStart;
+    }
+
+    public int getViewUnits() {
+        return visibleUnits();
+    }
+
+    // Volta a mostrar a memória inteira
+    public void resetView() {
+        viewStart = 0;
+        viewUnits = 0;
+        layoutChanged = true;
+    }
+
+    // Aproxima (factor < 1) ou afasta (factor > 1) mantendo a unidade anchor no mesmo lugar relativo
+    public void zoom(double factor, int anchor) {
+        int visible = visibleUnits();
+        int next = (int) Math.max(1, Math.min(units, Math.round(visible * factor)));
+        if (next == visible) return;
+        double relative = visible == 0 ? 0 : (double) (anchor - viewStart) / visible;
+        viewUnits = next >= units ? 0 : next;
+        viewStart = clampStart((int) Math.round(anchor - relative * next));
+        layoutChanged = true;
+    }
+
+    // Desloca a janela visível em pixels (arrastar: dx/dy positivos puxam endereços menores para a vista)
+    public void pan(int dx, int dy) {
+        if (cellW == 0 || cellH == 0) return;
+        long deltaCells = (long) (dy / cellH) * cols + dx / cellW;
+        int start = clampStart((int) Math.max(Integer.MIN_VALUE, viewStart - deltaCells * unitsPerCell));
+        if (start != viewStart) {
+            viewStart = start;
+            layoutChanged = true;
+        }
+    }
+
+    // Primeira unidade desenhada no pixel (x, y), ou -1 fora da grade
+    public int unitAt(int x, int y) {
+        if (cellW == 0 || cellH == 0 || x < 0 || y < 0) return -1;
+        int c = x / cellW, r = y / cellH;
+        if (c >= cols) return -1;
+        long cell = (long) r * cols + c;
+        if (cell >= cells) return -1;
+        return viewStart + (int) cell * unitsPerCell;
+    }
+
+    // Atualiza a imagem para o retrato s e devolve a região alterada (vazia se nada mudou)
+    public Rectangle render(SimulationSnapshot s, int width, int height) {
+        width = Math.max(1, width);
+        height = Math.max(1, height);
+        if (image == null || width != this.width || height != this.height) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            this.width = width;
+            this.height = height;
+            layoutChanged = true;
+        }
+        if (s.units != units) {
+            units = s.units;
+            resetView();
+        }
+        if (layoutChanged || previous == null) {
+            layoutChanged = false;
+            previous = s;
+            layout();
+            Arrays.fill(pixels, background);
+            for (int cell = 0; cell < cells; cell++) drawCell(s, cell);
+            return new Rectangle(0, 0, width, height);
+        }
+
+        Rectangle dirty = null;
+        int chunkUnits = MemoryManager.DIRTY_CHUNK_UNITS;
+        int viewEnd = viewStart + visibleUnits();
+        for (int chunk = 0; chunk < s.chunkCount(); chunk++) {
+            if (!s.chunkChanged(previous, chunk)) continue;
+            int from = Math.max(viewStart, chunk * chunkUnits);
+            int to = Math.min(viewEnd, (chunk + 1) * chunkUnits);
+            if (from >= to) continue;
+            int firstCell = (from - viewStart) / unitsPerCell;
+            int lastCell = (to - 1 - viewStart) / unitsPerCell;
+            for (int cell = firstCell; cell <= lastCell; cell++) drawCell(s, cell);
+            Rectangle bounds = cellBounds(firstCell, lastCell);
+            dirty = dirty == null ? bounds : dirty.union(bounds);
+        }
+        previous = s;
+        return dirty == null ? new Rectangle() : dirty;
+    }
+
+    private int visibleUnits() {
+        return viewUnits == 0 ? units : Math.min(viewUnits, units);
+    }
+
+    private int clampStart(int start) {
+        return Math.max(0, Math.min(start, units - visibleUnits()));
+    }
+
+    // Grade quadrada quando cabe; senão um pixel por célula com várias unidades cada
+    private void layout() {
+        int visible = visibleUnits();
+        unitsPerCell = 1;
+        cells = visible;
+        cols = (int) Math.max(1, Math.ceil(Math.sqrt((double) visible * width / height)));
+        int rows = visible == 0 ? 0 : (visible + cols - 1) / cols;
+        if (cols <= width && rows <= height) {
+            cellW = width / cols;
+            cellH = height / rows;
+            return;
+        }
+        unitsPerCell = (int) Math.max(1, ((long) visible + (long) width * height - 1) / ((long) width * height));
+        cells = (visible + unitsPerCell - 1) / unitsPerCell;
+        cols = width;
+        cellW = 1;
+        cellH = 1;
+        int capacity = Integer.highestOneBit(Math.max(1, unitsPerCell)) << 2; // ocupação de no máximo metade
+        if (countOwner.length != capacity) {
+            countOwner = new int[capacity];
+            Arrays.fill(countOwner, -1);
+            countUnits = new int[capacity];
+            countUsed = new int[capacity];
+            countShift = 32 - Integer.numberOfTrailingZeros(capacity);
+        }
+    }
+
+    private Rectangle cellBounds(int firstCell, int lastCell) {
+        int firstRow = firstCell / cols, lastRow = lastCell / cols;
+        if (firstRow == lastRow) {
+            return new Rectangle(firstCell % cols * cellW, firstRow * cellH, (lastCell - firstCell + 1) * cellW, cellH);
+        }
+        return new Rectangle(0, firstRow * cellH, cols * cellW, (lastRow - firstRow + 1) * cellH);
+    }
+
+    private void drawCell(SimulationSnapshot s, int cell) {
+        int from = viewStart + cell * unitsPerCell;
+        int to = Math.min(from + unitsPerCell, viewStart + visibleUnits());
+        int used = 0;
+        int dominant = -1;
+        if (mode == Mode.DENSITY || unitsPerCell == 1) {
+            for (int u = from; u < to; u++) {
+                int owner = s.ownerOf(u);
+                if (owner >= 0) {
+                    used++;
+                    dominant = owner;
+                }
+            }
+        } else {
+            // soma as unidades de cada dono, sequência por sequência, e fica com o que tem mais
+            int slots = 0, best = 0;
+            for (int u = from; u < to; ) {
+                int owner = s.ownerOf(u);
+                int end = u + 1;
+                while (end < to && s.ownerOf(end) == owner) end++;
+                if (owner >= 0) {
+                    used += end - u;
+                    int slot = (owner * 0x9E3779B9) >>> countShift;
+                    while (countOwner[slot] != owner && countOwner[slot] != -1) slot = (slot + 1) & (countOwner.length - 1);
+                    if (countOwner[slot] == -1) {
+                        countOwner[slot] = owner;
+                        countUsed[slots++] = slot;
+                    }
+                    countUnits[slot] += end - u;
+                    if (countUnits[slot] > best) {
+                        best = countUnits[slot];
+                        dominant = owner;
+                    }
+                }
+                u = end;
+            }
+            for (int i = 0; i < slots; i++) {
+                countOwner[countUsed[i]] = -1;
+                countUnits[countUsed[i]] = 0;
+            }
+        }
+        int total = to - from;
+        boolean free = used == 0;
+        int color;
+        if (mode == Mode.DENSITY) {
+            color = free ? FREE : blend(FREE, DENSITY_FULL, (double) used / total);
+        } else {
+            // o dono com mais unidades na célula, desde que ela esteja ao menos meio ocupada
+            free = used * 2 < total;
+            color = free ? FREE : palette[dominant % palette.length];
+        }
+        int x0 = cell % cols * cellW, y0 = cell / cols * cellH;
+        boolean bordered = cellW >= MIN_BORDERED_CELL && cellH >= MIN_BORDERED_CELL;
+        for (int y = 0; y < cellH; y++) {
+            int row = (y0 + y) * width + x0;
+            for (int x = 0; x < cellW; x++) {
+                int c = color;
+                if (bordered) {
+                    if (x == 0 || y == 0 || x == cellW - 1 || y == cellH - 1) c = BORDER;
+                    else if (free && x > 1 && y > 1 && x < cellW - 2 && y < cellH - 2
+                            && x - 1 == (int) ((long) (y - 1) * (cellW - 2) / (cellH - 2))) c = FREE_LINE;
+                }
+                pixels[row + x] = c;
+            }
+        }
+    }
+
+    private static int blend(int from, int to, double t) {
+        int r = (int) Math.round(((from >> 16) & 0xFF) + (((to >> 16) & 0xFF) - ((from >> 16) & 0xFF)) * t);
+        int g = (int) Math.round(((from >> 8) & 0xFF) + (((to >> 8) & 0xFF) - ((from >> 8) & 0xFF)) * t);
+        int b = (int) Math.round((from & 0xFF) + ((to & 0xFF) - (from & 0xFF)) * t);
+        return (r << 16) | (g << 8) | b;
+    }
+}
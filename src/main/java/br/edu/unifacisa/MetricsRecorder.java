@@ -0,0 +1,187 @@
+package br.edu.unifacisa;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import java.util.Locale;
+
+// Implementação padrão de AllocatorMetrics: histogramas de latência de alocação e liberação, distribuição dos
+// nós examinados por busca, divisões, junções e falhas separadas entre "faltou memória" e "fragmentação".
+// Com jfr ligado, cada operação também vira um evento JFR; o objeto do evento só é criado quando uma gravação
+// habilita o tipo (EventType.isEnabled(), consultado antes), então sem gravação o custo é uma leitura.
+// Não é thread-safe: use um por MemoryManager e junte com merge() se precisar.
+public class MetricsRecorder implements AllocatorMetrics {
+    private final boolean jfr;
+    private final LatencyHistogram allocLatency = new LatencyHistogram();
+    private final LatencyHistogram freeLatency = new LatencyHistogram();
+    private final LatencyHistogram inspected = new LatencyHistogram();
+    private long allocations;
+    private long failedNoSpace;       // memória livre total menor que o pedido
+    private long failedFragmented;    // havia espaço livre somado, mas nenhum bloco contínuo comportava
+    private long frees;
+    private long splits;
+    private long coalesces;
+
+    public MetricsRecorder() {
+        this(false);
+    }
+
+    public MetricsRecorder(boolean jfr) {
+        this.jfr = jfr;
+    }
+
+    @Override
+    public void onAllocate(long nanos, int requiredKb, boolean success, boolean enoughFreeSpace, int inspectedNodes, int splitCount) {
+        allocations++;
+        allocLatency.record(nanos);
+        inspected.record(inspectedNodes);
+        splits += splitCount;
+        if (!success) {
+            if (enoughFreeSpace) failedFragmented++;
+            else failedNoSpace++;
+        }
+        if (jfr && JfrTypes.ALLOCATE.isEnabled()) {
+            AllocationEvent event = new AllocationEvent();
+            if (event.shouldCommit()) {
+                event.latency = nanos;
+                event.requiredKb = requiredKb;
+                event.success = success;
+                event.fragmented = !success && enoughFreeSpace;
+                event.inspected = inspectedNodes;
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public void onFree(long nanos, int releasedKb, int coalesceCount) {
+        frees++;
+        freeLatency.record(nanos);
+        coalesces += coalesceCount;
+        if (jfr && JfrTypes.FREE.isEnabled()) {
+            FreeEvent event = new FreeEvent();
+            if (event.shouldCommit()) {
+                event.latency = nanos;
+                event.releasedKb = releasedKb;
+                event.coalesces = coalesceCount;
+                event.commit();
+            }
+        }
+    }
+
+    public LatencyHistogram allocationLatency() {
+        return allocLatency;
+    }
+
+    public LatencyHistogram freeLatency() {
+        return freeLatency;
+    }
+
+    // Nós da BlockTree/índice de livres examinados por chooseIndex (0 nos motores próprios, que não varrem blocos)
+    public LatencyHistogram inspectedPerSearch() {
+        return inspected;
+    }
+
+    public long allocations() {
+        return allocations;
+    }
+
+    public long failedNoSpace() {
+        return failedNoSpace;
+    }
+
+    public long failedFragmented() {
+        return failedFragmented;
+    }
+
+    public long frees() {
+        return frees;
+    }
+
+    public long splits() {
+        return splits;
+    }
+
+    public long coalesces() {
+        return coalesces;
+    }
+
+    public void merge(MetricsRecorder other) {
+        allocLatency.add(other.allocLatency);
+        freeLatency.add(other.freeLatency);
+        inspected.add(other.inspected);
+        allocations += other.allocations;
+        failedNoSpace += other.failedNoSpace;
+        failedFragmented += other.failedFragmented;
+        frees += other.frees;
+        splits += other.splits;
+        coalesces += other.coalesces;
+    }
+
+    public void reset() {
+        allocLatency.reset();
+        freeLatency.reset();
+        inspected.reset();
+        allocations = failedNoSpace = failedFragmented = frees = splits = coalesces = 0;
+    }
+
+    // Relatório legível, uma métrica por linha
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "Latência de alocação: %s%n"
+                        + "Latência de liberação: %s%n"
+                        + "Nós examinados por busca: média %.1f, p99 %d, máx %d%n"
+                        + "Divisões: %d | junções: %d%n"
+                        + "Falhas: %d sem memória livre suficiente, %d por fragmentação (de %d alocações)",
+                allocLatency, freeLatency,
+                inspected.mean(), inspected.percentile(99), inspected.max(),
+                splits, coalesces, failedNoSpace, failedFragmented, allocations);
+    }
+
+    // Tipos dos eventos, carregados só quando jfr está ligado
+    private static final class JfrTypes {
+        static final EventType ALLOCATE = EventType.getEventType(AllocationEvent.class);
+        static final EventType FREE = EventType.getEventType(FreeEvent.class);
+    }
+
+    @Name("br.edu.unifacisa.Allocate")
+    @Label("Alocação")
+    @Category("Simulador de Memória")
+    static class AllocationEvent extends Event {
+        @Label("Latência")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+
+        @Label("Tamanho pedido (KB)")
+        int requiredKb;
+
+        @Label("Alocou")
+        boolean success;
+
+        @Label("Falha por fragmentação")
+        boolean fragmented;
+
+        @Label("Nós examinados")
+        int inspected;
+    }
+
+    @Name("br.edu.unifacisa.Free")
+    @Label("Liberação")
+    @Category("Simulador de Memória")
+    static class FreeEvent extends Event {
+        @Label("Latência")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+
+        @Label("KB liberados")
+        int releasedKb;
+
+        @Label("Junções")
+        int coalesces;
+    }
+}
@@ -1,22 +1,16 @@
 package br.edu.unifacisa;
 
-import java.util.LinkedList;
-
 public class NextFit implements AllocationAlgorithm {
     @Override
-    public int chooseIndex(LinkedList<MemoryBlock> blocks, int requiredKb, int nextFitStartIndex) {
+    public int chooseIndex(BlockTree blocks, FreeBlockIndex freeIndex, int requiredKb, int nextFitStartIndex) {
         if (blocks.isEmpty()) return -1;
-        int n = blocks.size();
-        int i = nextFitStartIndex;
-        for (int k = 0; k < n; k++) {
-            MemoryBlock b = blocks.get(i);
-            // Procura a partir da última posição usada o primeiro bloco livre que comporte o processo (Next Fit)
-            if (b.free && b.sizeKb >= requiredKb) {
-                return i;
-            }
-            i = (i + 1) % n;
-        }
-        return -1; // não encontrou bloco livre suficiente na memória
+        // a posição salva pode ter passado do fim depois de junções de blocos
+        int start = nextFitStartIndex % blocks.size();
+        // Procura a partir da última posição usada o primeiro bloco livre que comporte o processo (Next Fit)
+        int i = blocks.firstFit(requiredKb, start);
+        // Não achou até o fim: volta ao início (só pode encontrar algo antes de start)
+        if (i < 0) i = blocks.firstFit(requiredKb, 0);
+        return i; // -1 se não encontrou bloco livre suficiente na memória
     }
 
     @Override
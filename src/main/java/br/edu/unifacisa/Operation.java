@@ -15,6 +15,22 @@ public class Operation {
     public static Operation alloc(String processId, int sizeKb) { return new Operation(Type.ALLOC, processId, sizeKb); }
     public static Operation free(String processId) { return new Operation(Type.FREE, processId, 0); }
 
+    // Lê a forma textual de toString() ("ALLOC P1 8KB", "FREE P1"); o sufixo KB é opcional
+    public static Operation parse(String line) {
+        String[] parts = line.trim().split("\\s+");
+        if (parts.length == 3 && parts[0].equalsIgnoreCase("ALLOC")) {
+            String size = parts[2];
+            if (size.regionMatches(true, size.length() - 2, "KB", 0, 2)) size = size.substring(0, size.length() - 2);
+            try {
+                return alloc(parts[1], Integer.parseInt(size));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Tamanho inválido: " + line, e);
+            }
+        }
+        if (parts.length == 2 && parts[0].equalsIgnoreCase("FREE")) return free(parts[1]);
+        throw new IllegalArgumentException("Operação inválida: " + line);
+    }
+
     @Override
     public String toString() {
         if (type == Type.ALLOC) return "ALLOC " + processId + " " + sizeKb + "KB";
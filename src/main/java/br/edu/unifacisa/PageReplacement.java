@@ -0,0 +1,20 @@
+package br.edu.unifacisa;
+
+import java.util.Locale;
+
+// Política de substituição de páginas do PagedMemory (todas O(1) por referência):
+// - FIFO: sai a página carregada há mais tempo
+// - LRU: sai a menos usada recentemente (lista duplamente ligada nos quadros; cada acesso move para o fim)
+// - CLOCK: segunda chance com bit de referência e um ponteiro circular sobre os quadros
+// - LFU: sai a menos acessada desde que foi carregada (listas por frequência; empate: a mais antiga)
+public enum PageReplacement {
+    FIFO, LRU, CLOCK, LFU;
+
+    public static PageReplacement parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Política de substituição desconhecida: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package br.edu.unifacisa;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Memória paginada: a memória física é dividida em quadros de unitKb (a mesma unidade do MemoryManager) e cada
+// processo tem a sua tabela de páginas (página virtual -> quadro, -1 fora da memória), que cresce sob demanda.
+// Cada referência consulta a TLB; numa falta de TLB consulta a tabela de páginas e, se a página não está em
+// nenhum quadro, é uma falta de página: usa um quadro livre ou tira uma página pela PageReplacement escolhida.
+//
+// Tudo fica em vetores primitivos indexados pelo quadro: dono, página, sujo, ligações prev/next (a lista de
+// FIFO/LRU e as listas por frequência do LFU), bit de referência (CLOCK) e contagem (LFU). Nenhuma referência
+// aloca objetos nem percorre quadros, exceto o ponteiro do CLOCK procurando uma página sem segunda chance.
+public class PagedMemory {
+    private static final int NONE = -1;
+
+    private final int unitKb;
+    private final int frameCount;
+    private final PageReplacement policy;
+    private final Tlb tlb;
+
+    // processos
+    private final Map<String, Integer> handles = new HashMap<>();
+    private String[] names = new String[16];
+    private int[][] pageTables = new int[16][];
+    private int[] residentPages = new int[16];
+    private int handleCount;
+    private int[] recycledHandles = new int[16];
+    private int recycledCount;
+
+    // quadros
+    private final int[] frameOwner;
+    private final int[] framePage;
+    private final boolean[] dirty;
+    private final int[] prev;
+    private final int[] next;
+    private final boolean[] referenced;
+    private final int[] freeFrames;
+    private int freeCount;
+    private int head = NONE, tail = NONE;   // FIFO/LRU: do mais antigo para o mais recente
+    private int hand;                       // CLOCK
+
+    // LFU: listas de quadros por frequência, as próprias listas ligadas em ordem crescente de frequência
+    private final int[] bucketOf;
+    private final long[] bucketFreq;
+    private final int[] bucketHead, bucketTail, bucketPrev, bucketNext;
+    private final int[] freeBuckets;
+    private int freeBucketCount;
+    private int lowestBucket = NONE;
+
+    // contadores
+    private long references;
+    private long tlbHits;
+    private long pageFaults;
+    private long evictions;
+    private long writeBacks;
+
+    public PagedMemory(int totalKb, int unitKb, PageReplacement policy, int tlbEntries, int tlbWays) {
+        if (unitKb < 1 || totalKb < unitKb) throw new IllegalArgumentException("Memória menor que um quadro");
+        this.unitKb = unitKb;
+        this.frameCount = totalKb / unitKb;
+        this.policy = policy;
+        this.tlb = new Tlb(tlbEntries, tlbWays);
+        frameOwner = new int[frameCount];
+        framePage = new int[frameCount];
+        dirty = new boolean[frameCount];
+        prev = new int[frameCount];
+        next = new int[frameCount];
+        referenced = new boolean[frameCount];
+        freeFrames = new int[frameCount];
+        bucketOf = new int[frameCount];
+        bucketFreq = new long[frameCount];
+        bucketHead = new int[frameCount];
+        bucketTail = new int[frameCount];
+        bucketPrev = new int[frameCount];
+        bucketNext = new int[frameCount];
+        freeBuckets = new int[frameCount];
+        reset();
+    }
+
+    public PagedMemory(int totalKb, int unitKb, PageReplacement policy) {
+        this(totalKb, unitKb, policy, Tlb.DEFAULT_ENTRIES, Tlb.DEFAULT_WAYS);
+    }
+
+    public int getUnitKb() {
+        return unitKb;
+    }
+
+    public int frameCount() {
+        return frameCount;
+    }
+
+    public int freeFrameCount() {
+        return freeCount;
+    }
+
+    public PageReplacement getPolicy() {
+        return policy;
+    }
+
+    public int tlbEntries() {
+        return tlb.entries();
+    }
+
+    // Handle do processo, registrando-o se ainda não existe
+    public int register(String processId) {
+        Integer handle = handles.get(processId);
+        if (handle != null) return handle;
+        int h;
+        if (recycledCount > 0) {
+            h = recycledHandles[--recycledCount];
+        } else {
+            if (handleCount == names.length) {
+                int capacity = handleCount * 2;
+                names = Arrays.copyOf(names, capacity);
+                pageTables = Arrays.copyOf(pageTables, capacity);
+                residentPages = Arrays.copyOf(residentPages, capacity);
+            }
+            h = handleCount++;
+        }
+        names[h] = processId;
+        pageTables[h] = new int[0];
+        residentPages[h] = 0;
+        handles.put(processId, h);
+        return h;
+    }
+
+    // Páginas do processo que estão em quadros
+    public int residentPages(String processId) {
+        Integer h = handles.get(processId);
+        return h == null ? 0 : residentPages[h];
+    }
+
+    // Tira o processo, devolvendo os quadros dele; false se não existe
+    public boolean remove(String processId) {
+        Integer handle = handles.remove(processId);
+        if (handle == null) return false;
+        int h = handle;
+        int[] table = pageTables[h];
+        for (int page = 0; page < table.length && residentPages[h] > 0; page++) {
+            int frame = table[page];
+            if (frame == NONE) continue;
+            tlb.invalidate(h, page);
+            unlink(frame);
+            frameOwner[frame] = NONE;
+            freeFrames[freeCount++] = frame;
+            residentPages[h]--;
+        }
+        names[h] = null;
+        pageTables[h] = null;
+        if (recycledCount == recycledHandles.length) recycledHandles = Arrays.copyOf(recycledHandles, recycledCount * 2);
+        recycledHandles[recycledCount++] = h;
+        return true;
+    }
+
+    // Referência ao endereço (em bytes) do processo; true se a página já estava na memória
+    public boolean access(int process, long address, boolean write) {
+        return accessPage(process, (int) (address / (unitKb * 1024L)), write);
+    }
+
+    // Referência à página virtual do processo; true se ela já estava na memória
+    public boolean accessPage(int process, int page, boolean write) {
+        references++;
+        int frame = tlb.lookup(process, page);
+        if (frame >= 0) {
+            tlbHits++;
+        } else {
+            int[] table = pageTables[process];
+            frame = page < table.length ? table[page] : NONE;
+            if (frame == NONE) {
+                pageFaults++;
+                frame = load(process, page);
+                if (write) dirty[frame] = true;
+                tlb.insert(process, page, frame);
+                return false;
+            }
+            tlb.insert(process, page, frame);
+        }
+        if (write) dirty[frame] = true;
+        touch(frame);
+        return true;
+    }
+
+    public long references() {
+        return references;
+    }
+
+    public long tlbHits() {
+        return tlbHits;
+    }
+
+    public long pageFaults() {
+        return pageFaults;
+    }
+
+    public long evictions() {
+        return evictions;
+    }
+
+    // Páginas sujas que saíram da memória (escritas de volta no disco)
+    public long writeBacks() {
+        return writeBacks;
+    }
+
+    public double pageFaultRate() {
+        return references == 0 ? 0 : (double) pageFaults / references;
+    }
+
+    public double tlbHitRate() {
+        return references == 0 ? 0 : (double) tlbHits / references;
+    }
+
+    // Esvazia a memória, a TLB e os contadores (os processos continuam registrados, sem páginas carregadas)
+    public void reset() {
+        for (int h = 0; h < handleCount; h++) {
+            if (pageTables[h] != null) {
+                Arrays.fill(pageTables[h], NONE);
+                residentPages[h] = 0;
+            }
+        }
+        Arrays.fill(frameOwner, NONE);
+        Arrays.fill(dirty, false);
+        Arrays.fill(referenced, false);
+        freeCount = frameCount;
+        for (int i = 0; i < frameCount; i++) freeFrames[i] = frameCount - 1 - i;
+        head = tail = NONE;
+        hand = 0;
+        lowestBucket = NONE;
+        freeBucketCount = frameCount;
+        for (int i = 0; i < frameCount; i++) freeBuckets[i] = frameCount - 1 - i;
+        tlb.clear();
+        references = tlbHits = pageFaults = evictions = writeBacks = 0;
+    }
+
+    // Traz a página para um quadro (livre ou de uma vítima) e devolve o quadro
+    private int load(int process, int page) {
+        int frame;
+        if (freeCount > 0) {
+            frame = freeFrames[--freeCount];
+        } else {
+            frame = victim();
+            int owner = frameOwner[frame];
+            int ownerPage = framePage[frame];
+            pageTables[owner][ownerPage] = NONE;
+            residentPages[owner]--;
+            tlb.invalidate(owner, ownerPage);
+            unlink(frame);
+            evictions++;
+            if (dirty[frame]) writeBacks++;
+        }
+        int[] table = pageTables[process];
+        if (page >= table.length) {
+            int old = table.length;
+            table = Arrays.copyOf(table, Math.max(page + 1, old * 2));
+            Arrays.fill(table, old, table.length, NONE);
+            pageTables[process] = table;
+        }
+        table[page] = frame;
+        residentPages[process]++;
+        frameOwner[frame] = process;
+        framePage[frame] = page;
+        dirty[frame] = false;
+        link(frame);
+        return frame;
+    }
+
+    private int victim() {
+        switch (policy) {
+            case CLOCK:
+                while (frameOwner[hand] == NONE || referenced[hand]) {
+                    referenced[hand] = false;
+                    hand = hand + 1 == frameCount ? 0 : hand + 1;
+                }
+                int frame = hand;
+                hand = hand + 1 == frameCount ? 0 : hand + 1;
+                return frame;
+            case LFU:
+                return bucketHead[lowestBucket];
+            default:
+                return head;
+        }
+    }
+
+    // Quadro recém-carregado entra na estrutura da política
+    private void link(int frame) {
+        switch (policy) {
+            case CLOCK -> referenced[frame] = true;
+            case LFU -> {
+                int bucket = lowestBucket;
+                if (bucket == NONE || bucketFreq[bucket] != 1) bucket = newBucket(1, NONE, lowestBucket);
+                append(bucket, frame);
+            }
+            default -> {
+                prev[frame] = tail;
+                next[frame] = NONE;
+                if (tail == NONE) head = frame;
+                else next[tail] = frame;
+                tail = frame;
+            }
+        }
+    }
+
+    private void unlink(int frame) {
+        switch (policy) {
+            case CLOCK -> referenced[frame] = false;
+            case LFU -> detach(bucketOf[frame], frame);
+            default -> {
+                if (prev[frame] == NONE) head = next[frame];
+                else next[prev[frame]] = next[frame];
+                if (next[frame] == NONE) tail = prev[frame];
+                else prev[next[frame]] = prev[frame];
+            }
+        }
+    }
+
+    private void touch(int frame) {
+        switch (policy) {
+            case LRU -> {
+                if (frame == tail) return;
+                unlink(frame);
+                prev[frame] = tail;
+                next[frame] = NONE;
+                next[tail] = frame;
+                tail = frame;
+            }
+            case CLOCK -> referenced[frame] = true;
+            case LFU -> {
+                int bucket = bucketOf[frame];
+                long freq = bucketFreq[bucket] + 1;
+                int following = bucketNext[bucket];
+                if (following == NONE || bucketFreq[following] != freq) {
+                    if (bucketHead[bucket] == frame && bucketTail[bucket] == frame) {
+                        bucketFreq[bucket] = freq; // sozinho na lista: só muda a frequência dela
+                        return;
+                    }
+                    following = newBucket(freq, bucket, following);
+                }
+                detach(bucket, frame);
+                append(following, frame);
+            }
+            default -> {
+                // FIFO não reage a acessos
+            }
+        }
+    }
+
+    private int newBucket(long freq, int before, int after) {
+        int bucket = freeBuckets[--freeBucketCount];
+        bucketFreq[bucket] = freq;
+        bucketHead[bucket] = bucketTail[bucket] = NONE;
+        bucketPrev[bucket] = before;
+        bucketNext[bucket] = after;
+        if (before == NONE) lowestBucket = bucket;
+        else bucketNext[before] = bucket;
+        if (after != NONE) bucketPrev[after] = bucket;
+        return bucket;
+    }
+
+    private void append(int bucket, int frame) {
+        bucketOf[frame] = bucket;
+        prev[frame] = bucketTail[bucket];
+        next[frame] = NONE;
+        if (bucketTail[bucket] == NONE) bucketHead[bucket] = frame;
+        else next[bucketTail[bucket]] = frame;
+        bucketTail[bucket] = frame;
+    }
+
+    // Tira o quadro da lista de frequência e descarta a lista se ela ficar vazia
+    private void detach(int bucket, int frame) {
+        if (prev[frame] == NONE) bucketHead[bucket] = next[frame];
+        else next[prev[frame]] = next[frame];
+        if (next[frame] == NONE) bucketTail[bucket] = prev[frame];
+        else prev[next[frame]] = prev[frame];
+        if (bucketHead[bucket] != NONE) return;
+        int before = bucketPrev[bucket], after = bucketNext[bucket];
+        if (before == NONE) lowestBucket = after;
+        else bucketNext[before] = after;
+        if (after != NONE) bucketPrev[after] = before;
+        freeBuckets[freeBucketCount++] = bucket;
+    }
+}
@@ -0,0 +1,81 @@
+package br.edu.unifacisa;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Compara as políticas de substituição de página sobre a mesma sequência de referências: cada política roda num
+// PagedMemory novo com a mesma memória, quadro e TLB, e a tabela mostra taxa de faltas de página, taxa de
+// acerto da TLB, páginas escritas de volta e referências por segundo.
+//
+// Sem --trace as referências são sintéticas: --processes processos com espaço virtual sorteado por --sizes (KB,
+// no formato de Distribution.parse), revezando-se a cada --quantum referências, com --locality das referências
+// dentro de uma janela de --working-set páginas.
+//
+// Uso: java -cp out br.edu.unifacisa.PagingSimulator [--memory=KB] [--unit=KB] [--tlb=ENTRADAS] [--tlb-ways=N]
+//      [--policies=fifo,lru,clock,lfu] [--trace=acessos.txt] [--processes=N] [--sizes=DIST] [--refs=N]
+//      [--quantum=N] [--locality=F] [--working-set=PÁGINAS] [--writes=F] [--seed=N]
+public class PagingSimulator {
+
+    public static void main(String[] args) throws IOException {
+        int memoryKb = 8_192;
+        int unitKb = 4;
+        int tlbEntries = Tlb.DEFAULT_ENTRIES;
+        int tlbWays = Tlb.DEFAULT_WAYS;
+        PageReplacement[] policies = PageReplacement.values();
+        String trace = null;
+        int processes = 16;
+        Distribution sizes = Distribution.pareto(256, 1.2, 65_536);
+        int refs = 20_000_000;
+        int quantum = 10_000;
+        double locality = 0.9;
+        int workingSet = 128;
+        double writes = 0.3;
+        long seed = 42;
+
+        for (String arg : args) {
+            String value = arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : "";
+            if (arg.startsWith("--memory=")) memoryKb = Integer.parseInt(value);
+            else if (arg.startsWith("--unit=")) unitKb = Integer.parseInt(value);
+            else if (arg.startsWith("--tlb=")) tlbEntries = Integer.parseInt(value);
+            else if (arg.startsWith("--tlb-ways=")) tlbWays = Integer.parseInt(value);
+            else if (arg.startsWith("--policies=")) policies = Arrays.stream(value.split(",")).map(PageReplacement::parse).toArray(PageReplacement[]::new);
+            else if (arg.startsWith("--trace=")) trace = value;
+            else if (arg.startsWith("--processes=")) processes = Integer.parseInt(value);
+            else if (arg.startsWith("--sizes=")) sizes = Distribution.parse(value);
+            else if (arg.startsWith("--refs=")) refs = Integer.parseInt(value);
+            else if (arg.startsWith("--quantum=")) quantum = Integer.parseInt(value);
+            else if (arg.startsWith("--locality=")) locality = Double.parseDouble(value);
+            else if (arg.startsWith("--working-set=")) workingSet = Integer.parseInt(value);
+            else if (arg.startsWith("--writes=")) writes = Double.parseDouble(value);
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(value);
+            else throw new IllegalArgumentException("Argumento desconhecido: " + arg);
+        }
+
+        AccessTrace accesses;
+        if (trace != null) {
+            accesses = AccessTrace.load(Path.of(trace), unitKb);
+        } else {
+            SplittableRandom random = new SplittableRandom(seed);
+            int[] pages = new int[processes];
+            for (int i = 0; i < processes; i++) pages[i] = (sizes.sample(random) + unitKb - 1) / unitKb;
+            accesses = AccessTrace.generate(seed, pages, refs, quantum, locality, workingSet, writes);
+        }
+
+        System.out.printf(Locale.ROOT, "Memória: %dKB em %d quadros de %dKB | TLB: %d entradas (%d vias) | %d referências de %d processos%n",
+                memoryKb, memoryKb / unitKb, unitKb, tlbEntries, tlbWays, accesses.length(), accesses.processCount());
+        System.out.printf(Locale.ROOT, "%-8s %12s %10s %10s %12s %12s%n",
+                "política", "faltas", "tx.faltas", "acerto TLB", "escritas", "refs/s");
+        for (PageReplacement policy : policies) {
+            PagedMemory memory = new PagedMemory(memoryKb, unitKb, policy, tlbEntries, tlbWays);
+            long start = System.nanoTime();
+            accesses.replay(memory);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf(Locale.ROOT, "%-8s %12d %9.3f%% %9.2f%% %12d %12.0f%n",
+                    policy, memory.pageFaults(), memory.pageFaultRate() * 100, memory.tlbHitRate() * 100,
+                    memory.writeBacks(), memory.references() * 1e9 / elapsed);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package br.edu.unifacisa;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+// Processos em memória: cada ID é internado em um handle inteiro, usado como dono dos blocos na BlockTree.
+// Por handle guardamos o primeiro bloco ocupado (os demais seguem por nextOwned), o total alocado e o total pedido.
+// Blocos são identificados por um número de nó: o nó da BlockTree ou, nos motores próprios, a unidade inicial.
+// Os processos ficam na ordem em que apareceram; handles de processos liberados são reaproveitados.
+public class ProcessIndex {
+    public static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Integer> handles = new LinkedHashMap<>();
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] firstBlock = new int[INITIAL_CAPACITY];
+    private int[] allocatedKb = new int[INITIAL_CAPACITY];
+    private int[] requestedKb = new int[INITIAL_CAPACITY];
+    private int handleCount;
+    private int[] nextOwned = new int[INITIAL_CAPACITY]; // por nó: próximo bloco do mesmo processo
+    private int[] recycled = new int[INITIAL_CAPACITY];
+    private int recycledCount;
+
+    private final Map<String, Integer> allocatedKbView = new AbstractMap<>() {
+        @Override
+        public Integer get(Object processId) {
+            Integer handle = handles.get(processId);
+            return handle == null ? null : allocatedKb[handle];
+        }
+
+        @Override
+        public boolean containsKey(Object processId) {
+            return handles.containsKey(processId);
+        }
+
+        @Override
+        public int size() {
+            return handles.size();
+        }
+
+        @Override
+        public Set<Entry<String, Integer>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return handles.size();
+                }
+
+                @Override
+                public Iterator<Entry<String, Integer>> iterator() {
+                    Iterator<Entry<String, Integer>> it = handles.entrySet().iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Integer> next() {
+                            Entry<String, Integer> e = it.next();
+                            return new SimpleImmutableEntry<>(e.getKey(), allocatedKb[e.getValue()]);
+                        }
+                    };
+                }
+            };
+        }
+    };
+
+    // Handle do processo, criando um novo se ele ainda não estiver em memória
+    public int intern(String processId) {
+        Integer existing = handles.get(processId);
+        if (existing != null) return existing;
+        int handle;
+        if (recycledCount > 0) {
+            handle = recycled[--recycledCount];
+        } else {
+            if (handleCount == names.length) grow();
+            handle = handleCount++;
+        }
+        names[handle] = processId;
+        firstBlock[handle] = BlockTree.NIL;
+        allocatedKb[handle] = 0;
+        requestedKb[handle] = 0;
+        handles.put(processId, handle);
+        return handle;
+    }
+
+    // Handle do processo ou NONE se ele não tiver blocos em memória
+    public int handleOf(String processId) {
+        Integer handle = handles.get(processId);
+        return handle == null ? NONE : handle;
+    }
+
+    public String name(int handle) {
+        return names[handle];
+    }
+
+    // Maior handle já usado + 1 (para vetores indexados por handle)
+    public int capacity() {
+        return handleCount;
+    }
+
+    // Registra o bloco ocupado pelo processo: sizeKb reservados para atender requestedKb pedidos
+    public void add(int handle, int node, int sizeKb, int requestedKb) {
+        if (node >= nextOwned.length) nextOwned = Arrays.copyOf(nextOwned, Math.max(node + 1, nextOwned.length * 2));
+        nextOwned[node] = firstBlock[handle];
+        firstBlock[handle] = node;
+        allocatedKb[handle] += sizeKb;
+        this.requestedKb[handle] += requestedKb;
+    }
+
+    // Primeiro bloco ocupado pelo processo; os seguintes via nextOwned
+    public int firstBlock(int handle) {
+        return firstBlock[handle];
+    }
+
+    public int nextOwned(int node) {
+        return nextOwned[node];
+    }
+
+    // KB pedidos pelo processo antes do alinhamento/arredondamento do alocador
+    public int requestedKb(int handle) {
+        return requestedKb[handle];
+    }
+
+    // Visita os handles na ordem em que os processos apareceram
+    public void forEachProcess(IntConsumer action) {
+        for (int handle : handles.values()) action.accept(handle);
+    }
+
+    // Esquece o processo (todos os blocos dele já foram liberados) e recicla o handle
+    public void release(int handle) {
+        handles.remove(names[handle]);
+        names[handle] = null;
+        firstBlock[handle] = BlockTree.NIL;
+        allocatedKb[handle] = 0;
+        requestedKb[handle] = 0;
+        if (recycledCount == recycled.length) recycled = Arrays.copyOf(recycled, recycled.length * 2);
+        recycled[recycledCount++] = handle;
+    }
+
+    public int allocatedKb(String processId) {
+        Integer handle = handles.get(processId);
+        return handle == null ? 0 : allocatedKb[handle];
+    }
+
+    // Visão somente leitura: processo -> KB alocados
+    public Map<String, Integer> allocatedKbByProcess() {
+        return allocatedKbView;
+    }
+
+    public void clear() {
+        handles.clear();
+        Arrays.fill(names, 0, handleCount, null);
+        handleCount = 0;
+        recycledCount = 0;
+    }
+
+    private void grow() {
+        int capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        firstBlock = Arrays.copyOf(firstBlock, capacity);
+        allocatedKb = Arrays.copyOf(allocatedKb, capacity);
+        requestedKb = Arrays.copyOf(requestedKb, capacity);
+    }
+}
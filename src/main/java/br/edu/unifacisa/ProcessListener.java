@@ -0,0 +1,12 @@
+package br.edu.unifacisa;
+
+// Receptor das mudanças na lista de processos do MemoryManager (ver MemoryManager.setProcessListener).
+// As chamadas acontecem na thread que executa a operação, que durante um Run é a thread de simulação.
+public interface ProcessListener {
+
+    // Processo alocou ou liberou: allocatedKb é o total dele depois da operação (0 quando saiu da memória)
+    void onProcessChanged(String processId, int allocatedKb);
+
+    // reset(): todos os processos saíram da memória
+    void onProcessesCleared();
+}
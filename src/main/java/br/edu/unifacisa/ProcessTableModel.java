@@ -0,0 +1,251 @@
+package br.edu.unifacisa;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Tabela de processos atualizada por diferenças: o MemoryManager avisa cada processo que mudou (ProcessListener),
+// as mudanças se acumulam em um mapa (a última vence) e a EDT aplica o lote em applyPending(), disparando só
+// eventos de linha inserida, alterada ou removida. A JTable desenha apenas as linhas visíveis, então o custo de
+// um lote depende de quantos processos mudaram, não de quantos estão em memória.
+//
+// Os avisos podem vir da thread de simulação; todo o resto (linhas, ordem, filtro) é só da EDT.
+// A ordenação e o filtro ficam no próprio modelo, sem TableRowSorter (que reordena tudo a cada evento).
+// Um lote maior que 1/8 das linhas é aplicado de uma vez, reordenando e disparando fireTableDataChanged.
+public class ProcessTableModel extends AbstractTableModel implements ProcessListener {
+
+    public enum SortKey { ARRIVAL, ID, SIZE }
+
+    private static final String[] COLUMNS = {"ID", "Alocado (KB)"};
+    private static final int REMOVED = 0;
+
+    private static final class Row {
+        final String id;
+        final long arrival;
+        int allocatedKb;
+
+        Row(String id, long arrival, int allocatedKb) {
+            this.id = id;
+            this.arrival = arrival;
+            this.allocatedKb = allocatedKb;
+        }
+    }
+
+    // mudanças ainda não aplicadas (ordem do primeiro aviso de cada processo no lote)
+    private final Object pendingLock = new Object();
+    private Map<String, Integer> pending = new LinkedHashMap<>();
+    private boolean pendingClear;
+
+    private final Map<String, Row> byId = new HashMap<>();
+    private final List<Row> visible = new ArrayList<>(); // linhas que passam no filtro, na ordem escolhida
+    private SortKey sortKey = SortKey.ARRIVAL;
+    private boolean ascending = true;
+    private Comparator<Row> order = comparator(sortKey, ascending);
+    private String filter = "";
+    private long arrivals;
+
+    // Começa com os processos que já estão em memória (chamar na thread dona do manager)
+    public ProcessTableModel(Map<String, Integer> initial) {
+        for (Map.Entry<String, Integer> e : initial.entrySet()) {
+            Row row = new Row(e.getKey(), arrivals++, e.getValue());
+            byId.put(row.id, row);
+            visible.add(row);
+        }
+    }
+
+    @Override
+    public void onProcessChanged(String processId, int allocatedKb) {
+        synchronized (pendingLock) {
+            pending.put(processId, allocatedKb);
+        }
+    }
+
+    @Override
+    public void onProcessesCleared() {
+        synchronized (pendingLock) {
+            pending.clear();
+            pendingClear = true;
+        }
+    }
+
+    // Aplica as mudanças acumuladas desde a última chamada (EDT)
+    public void applyPending() {
+        Map<String, Integer> batch;
+        boolean clear;
+        synchronized (pendingLock) {
+            if (pending.isEmpty() && !pendingClear) return;
+            batch = pending;
+            clear = pendingClear;
+            pending = new LinkedHashMap<>();
+            pendingClear = false;
+        }
+        if (clear && !byId.isEmpty()) {
+            int removed = visible.size();
+            byId.clear();
+            visible.clear();
+            if (removed > 0) fireTableRowsDeleted(0, removed - 1);
+        }
+        if (batch.size() > Math.max(64, visible.size() / 8)) {
+            // muitas linhas mudaram: refazer a lista custa menos que um evento por linha
+            for (Map.Entry<String, Integer> e : batch.entrySet()) applySilently(e.getKey(), e.getValue());
+            rebuildVisible();
+            fireTableDataChanged();
+            return;
+        }
+        for (Map.Entry<String, Integer> e : batch.entrySet()) apply(e.getKey(), e.getValue());
+    }
+
+    public SortKey getSortKey() {
+        return sortKey;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public void sortBy(SortKey key, boolean ascending) {
+        this.sortKey = key;
+        this.ascending = ascending;
+        this.order = comparator(key, ascending);
+        visible.sort(order);
+        fireTableDataChanged();
+    }
+
+    // Clique no cabeçalho: a mesma coluna inverte a ordem, outra coluna começa crescente
+    public void toggleSort(int column) {
+        SortKey key = column == 0 ? SortKey.ID : SortKey.SIZE;
+        sortBy(key, key != sortKey || !ascending);
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    // Mostra só os processos cujo ID contém o texto (sem diferenciar maiúsculas); vazio mostra todos
+    public void setFilter(String text) {
+        String normalized = text == null ? "" : text.trim().toLowerCase();
+        if (normalized.equals(filter)) return;
+        filter = normalized;
+        rebuildVisible();
+        fireTableDataChanged();
+    }
+
+    // Processos em memória, incluindo os escondidos pelo filtro
+    public int getProcessCount() {
+        return byId.size();
+    }
+
+    @Override
+    public int getRowCount() {
+        return visible.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return column == 0 ? String.class : Integer.class;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Row row = visible.get(rowIndex);
+        return columnIndex == 0 ? row.id : row.allocatedKb;
+    }
+
+    private void apply(String id, int allocatedKb) {
+        Row row = byId.get(id);
+        if (row == null) {
+            if (allocatedKb == REMOVED) return; // entrou e saiu dentro do mesmo lote
+            row = new Row(id, arrivals++, allocatedKb);
+            byId.put(id, row);
+            if (matches(row)) {
+                int at = insertionPoint(row);
+                visible.add(at, row);
+                fireTableRowsInserted(at, at);
+            }
+            return;
+        }
+        int at = matches(row) ? Collections.binarySearch(visible, row, order) : -1;
+        if (allocatedKb == REMOVED) {
+            byId.remove(id);
+            if (at >= 0) {
+                visible.remove(at);
+                fireTableRowsDeleted(at, at);
+            }
+            return;
+        }
+        if (row.allocatedKb == allocatedKb) return;
+        if (at < 0) {
+            row.allocatedKb = allocatedKb;
+            return;
+        }
+        if (sortKey != SortKey.SIZE) {
+            row.allocatedKb = allocatedKb;
+            fireTableRowsUpdated(at, at);
+            return;
+        }
+        // ordenado por tamanho: a linha muda de lugar
+        visible.remove(at);
+        row.allocatedKb = allocatedKb;
+        int to = insertionPoint(row);
+        visible.add(to, row);
+        if (to == at) {
+            fireTableRowsUpdated(at, at);
+        } else {
+            fireTableRowsDeleted(at, at);
+            fireTableRowsInserted(to, to);
+        }
+    }
+
+    private void applySilently(String id, int allocatedKb) {
+        if (allocatedKb == REMOVED) {
+            byId.remove(id);
+            return;
+        }
+        Row row = byId.get(id);
+        if (row == null) byId.put(id, new Row(id, arrivals++, allocatedKb));
+        else row.allocatedKb = allocatedKb;
+    }
+
+    private void rebuildVisible() {
+        visible.clear();
+        for (Row row : byId.values()) {
+            if (matches(row)) visible.add(row);
+        }
+        visible.sort(order);
+    }
+
+    private boolean matches(Row row) {
+        return filter.isEmpty() || row.id.toLowerCase().contains(filter);
+    }
+
+    // A ordem é total (empates desfeitos pela chegada), então a busca binária acha a posição exata
+    private int insertionPoint(Row row) {
+        int at = Collections.binarySearch(visible, row, order);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    private static Comparator<Row> comparator(SortKey key, boolean ascending) {
+        Comparator<Row> byArrival = Comparator.comparingLong(r -> r.arrival);
+        Comparator<Row> c = switch (key) {
+            case ID -> Comparator.comparing(r -> r.id);
+            case SIZE -> Comparator.<Row>comparingInt(r -> r.allocatedKb).thenComparing(byArrival);
+            case ARRIVAL -> byArrival;
+        };
+        return ascending ? c : c.reversed();
+    }
+}
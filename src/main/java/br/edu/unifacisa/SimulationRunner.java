@@ -0,0 +1,159 @@
+package br.edu.unifacisa;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+// Executa uma carga em uma thread própria, separada da EDT. Enquanto roda, só ela mexe no MemoryManager e na
+// Workload; a interface recebe SimulationSnapshot imutáveis publicados no máximo a cada ~16ms (latest() devolve
+// sempre o mais recente, os intermediários são descartados).
+//
+// A velocidade é um limite de operações por segundo (0 = sem limite) e pode mudar durante a execução.
+// pause()/resume() param a thread entre duas operações; stop() encerra e espera a thread terminar.
+// Com uma Timeline as operações passam por ela (ficam no histórico e o Run continua de onde um undo parou).
+public class SimulationRunner {
+    private static final long PUBLISH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(16);
+    private static final long PAUSE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final MemoryManager manager;
+    private final BooleanSupplier step;  // executa a próxima operação; false quando a carga acabou
+    private final Runnable onFinish;
+    private final Thread thread;
+    private final AtomicReference<SimulationSnapshot> latest = new AtomicReference<>();
+    private volatile int opsPerSecondLimit;
+    private volatile boolean paused;
+    private volatile boolean stopped;
+    private volatile boolean speedChanged;
+    private volatile boolean finished;
+
+    // onFinish roda na thread de simulação quando a carga acaba ou stop() é chamado
+    public SimulationRunner(MemoryManager manager, Workload workload, int opsPerSecondLimit, Runnable onFinish) {
+        this(manager, () -> {
+            Operation op = workload.poll();
+            if (op == null) return false;
+            if (op.type == Operation.Type.ALLOC) {
+                manager.allocate(op.processId, op.sizeKb);
+            } else {
+                manager.free(op.processId);
+            }
+            return true;
+        }, opsPerSecondLimit, onFinish);
+    }
+
+    // Refaz o que estiver adiante na timeline e depois segue pela origem dela
+    public SimulationRunner(Timeline timeline, int opsPerSecondLimit, Runnable onFinish) {
+        this(timeline.getManager(), timeline::step, opsPerSecondLimit, onFinish);
+    }
+
+    private SimulationRunner(MemoryManager manager, BooleanSupplier step, int opsPerSecondLimit, Runnable onFinish) {
+        this.manager = manager;
+        this.step = step;
+        this.opsPerSecondLimit = opsPerSecondLimit;
+        this.onFinish = onFinish;
+        this.thread = new Thread(this::loop, "simulation");
+        this.thread.setDaemon(true);
+        latest.set(SimulationSnapshot.capture(manager, 0, latest.get()));
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        paused = false;
+        LockSupport.unpark(thread);
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    // true depois que a thread saiu do laço (carga esgotada ou stop())
+    public boolean isFinished() {
+        return finished;
+    }
+
+    // Encerra a execução e espera a thread sair; depois disso o manager volta para quem chamou
+    public void stop() {
+        stopped = true;
+        LockSupport.unpark(thread);
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Limite de operações por segundo; 0 = sem limite
+    public void setSpeed(int opsPerSecond) {
+        this.opsPerSecondLimit = opsPerSecond;
+        speedChanged = true;
+    }
+
+    // Retrato mais recente publicado
+    public SimulationSnapshot latest() {
+        return latest.get();
+    }
+
+    private void loop() {
+        long lastPublish = System.nanoTime();
+        long opsAtLastPublish = 0;
+        long ops = 0;
+        // ritmo: a operação k do período atual não pode começar antes de periodStart + k / limite
+        long periodStart = lastPublish;
+        long periodOps = 0;
+        try {
+            while (!stopped) {
+                if (paused) {
+                    latest.set(SimulationSnapshot.capture(manager, 0, latest.get()));
+                    while (paused && !stopped) LockSupport.parkNanos(this, PAUSE_POLL_NANOS);
+                    periodStart = lastPublish = System.nanoTime();
+                    periodOps = 0;
+                    opsAtLastPublish = ops;
+                    continue;
+                }
+                if (!step.getAsBoolean()) break;
+                ops++;
+                periodOps++;
+
+                int limit = opsPerSecondLimit;
+                if (speedChanged) {
+                    speedChanged = false;
+                    periodStart = System.nanoTime();
+                    periodOps = 0;
+                }
+                long now;
+                if (limit > 0) {
+                    long due = periodStart + periodOps * 1_000_000_000L / limit;
+                    now = System.nanoTime();
+                    // dorme no máximo até a próxima publicação, para o retrato e a pausa não atrasarem
+                    while (now < due && !stopped && !paused && !speedChanged) {
+                        LockSupport.parkNanos(this, Math.min(due - now, PUBLISH_INTERVAL_NANOS));
+                        now = System.nanoTime();
+                    }
+                } else if ((ops & 63) == 0) {
+                    now = System.nanoTime(); // sem limite: lê o relógio só a cada 64 operações
+                } else {
+                    continue;
+                }
+                if (now - lastPublish >= PUBLISH_INTERVAL_NANOS) {
+                    double rate = (ops - opsAtLastPublish) * 1e9 / (now - lastPublish);
+                    latest.set(SimulationSnapshot.capture(manager, rate, latest.get()));
+                    lastPublish = now;
+                    opsAtLastPublish = ops;
+                }
+            }
+        } finally {
+            latest.set(SimulationSnapshot.capture(manager, 0, latest.get()));
+            finished = true;
+            if (onFinish != null) onFinish.run();
+        }
+    }
+}
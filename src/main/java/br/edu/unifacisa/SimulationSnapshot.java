@@ -0,0 +1,73 @@
+package br.edu.unifacisa;
+
+// Retrato imutável do estado da memória em um instante, publicado pela thread de simulação e lido pela interface.
+// Tudo é copiado na captura, então a EDT pode desenhá-lo enquanto o MemoryManager continua mudando em outra thread.
+// Os donos das unidades ficam em faixas de MemoryManager.DIRTY_CHUNK_UNITS: capturado a partir do retrato anterior,
+// só as faixas cuja época mudou são recopiadas e as outras são compartilhadas com ele (nenhuma é alterada depois
+// de publicada), então o custo da captura acompanha o que mudou e não o tamanho da memória.
+public final class SimulationSnapshot {
+    public final int totalKb;
+    public final int unitKb;
+    public final int units;
+    public final int freeKb;
+    public final int usedKb;
+    public final double externalFragmentation;
+    public final long internalFragmentationKb;
+    public final long steps;
+    public final double opsPerSecond;     // vazão medida pela thread de simulação (0 fora de uma execução)
+    private final int[][] chunkOwners;    // por faixa e unidade: -1 livre, senão handle do processo dono
+    private final long[] chunkVersions;   // época da última mudança por faixa de MemoryManager.DIRTY_CHUNK_UNITS
+
+    private SimulationSnapshot(MemoryManager manager, double opsPerSecond, SimulationSnapshot previous) {
+        totalKb = manager.getTotalKb();
+        unitKb = manager.getUnitKb();
+        units = manager.getUnits();
+        freeKb = manager.freeKb();
+        usedKb = manager.usedKb();
+        externalFragmentation = manager.externalFragmentation();
+        internalFragmentationKb = manager.internalFragmentationKb();
+        steps = manager.getSteps();
+        this.opsPerSecond = opsPerSecond;
+        chunkVersions = manager.snapshotChunkVersions();
+        boolean reusable = previous != null && previous.units == units && previous.unitKb == unitKb;
+        chunkOwners = new int[chunkVersions.length][];
+        int[] dirty = new int[chunkVersions.length];
+        int count = 0;
+        for (int c = 0; c < chunkVersions.length; c++) {
+            if (reusable && previous.chunkVersions[c] == chunkVersions[c]) continue;
+            chunkOwners[c] = new int[Math.min(MemoryManager.DIRTY_CHUNK_UNITS, units - c * MemoryManager.DIRTY_CHUNK_UNITS)];
+            dirty[count++] = c;
+        }
+        manager.snapshotUnitHandles(chunkOwners, dirty, count);
+        if (reusable) {
+            for (int c = 0; c < chunkOwners.length; c++) {
+                if (chunkOwners[c] == null) chunkOwners[c] = previous.chunkOwners[c];
+            }
+        }
+    }
+
+    // Deve ser chamado pela thread dona do manager naquele momento
+    public static SimulationSnapshot capture(MemoryManager manager, double opsPerSecond) {
+        return new SimulationSnapshot(manager, opsPerSecond, null);
+    }
+
+    // Como capture(manager, opsPerSecond), recopiando só as faixas que mudaram desde previous (null: todas)
+    public static SimulationSnapshot capture(MemoryManager manager, double opsPerSecond, SimulationSnapshot previous) {
+        return new SimulationSnapshot(manager, opsPerSecond, previous);
+    }
+
+    // Handle do processo dono da unidade ou -1 se livre (estável enquanto a unidade não muda de dono)
+    public int ownerOf(int unit) {
+        return chunkOwners[unit / MemoryManager.DIRTY_CHUNK_UNITS][unit % MemoryManager.DIRTY_CHUNK_UNITS];
+    }
+
+    public int chunkCount() {
+        return chunkVersions.length;
+    }
+
+    // A faixa de unidades [chunk * DIRTY_CHUNK_UNITS, ...) mudou entre este retrato e other?
+    public boolean chunkChanged(SimulationSnapshot other, int chunk) {
+        return other == null || other.chunkVersions.length != chunkVersions.length
+                || other.chunkVersions[chunk] != chunkVersions[chunk];
+    }
+}
@@ -1,9 +1,12 @@
 package br.edu.unifacisa;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 
 public class SimulatorFrame extends JFrame {
@@ -13,45 +16,105 @@ public class SimulatorFrame extends JFrame {
     private final JTextField processIdField;
     private final JSpinner sizeSpinner;
     private final JLabel statusLabel;
-    private final DefaultTableModel tableModel;
+    private final ProcessTableModel tableModel;
+    private final JTextField filterField;
+    private final JLabel processCountLabel;
     private final JTable table;
     private final Workload workload = new Workload();
-    private final Map<String, Integer> processSize = new LinkedHashMap<>();
+    private final Timeline timeline;           // histórico para Undo/Redo e "Ir para passo"
+    private final JButton undoBtn;
+    private final JButton redoBtn;
+
+    // Execução em thread própria (Run): velocidades em operações por segundo, 0 = sem limite
+    private static final String[] SPEED_NAMES = {"8 ops/s", "60 ops/s", "1.000 ops/s", "100.000 ops/s", "Sem limite"};
+    private static final int[] SPEEDS = {8, 60, 1_000, 100_000, 0};
+    private static final long TABLE_INTERVAL_NANOS = 250_000_000L; // a tabela recebe as mudanças no máximo 4x/s
+    private final JComboBox<String> speedCombo;
+    private final JButton runBtn;
+    private final java.util.List<Component> manualControls = new ArrayList<>();
+    private final javax.swing.Timer frameTimer;
+    private SimulationRunner runner;           // null quando nenhuma execução está ativa
+    private SimulationSnapshot lastRendered;
+    private long lastTableUpdate;
 
     public SimulatorFrame() {
+        this(MemoryManager.DEFAULT_TOTAL_KB, MemoryManager.DEFAULT_UNIT_KB);
+    }
+
+    public SimulatorFrame(int totalKb, int unitKb) {
         super("Simulador de Gerenciamento de Memória");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
 
         // Algoritmo inicial
         AllocationAlgorithm algo = new FirstFit();
-        manager = new MemoryManager(algo);
-        memoryPanel = new MemoryPanel(manager);
+        manager = new MemoryManager(totalKb, unitKb, algo);
+        timeline = new Timeline(manager);
+        timeline.setSource(workload);
+        memoryPanel = new MemoryPanel(SimulationSnapshot.capture(manager, 0));
+
+        // Menu: abrir trace binário como carga; salvar e retomar o estado da simulação
+        JMenuBar menuBar = new JMenuBar();
+        JMenu fileMenu = new JMenu("Arquivo");
+        JMenuItem openTraceItem = new JMenuItem("Abrir trace...");
+        JMenuItem saveStateItem = new JMenuItem("Salvar estado...");
+        saveStateItem.setAccelerator(KeyStroke.getKeyStroke("control S"));
+        JMenuItem loadStateItem = new JMenuItem("Abrir estado...");
+        loadStateItem.setAccelerator(KeyStroke.getKeyStroke("control O"));
+        manualControls.addAll(Arrays.asList(openTraceItem, saveStateItem, loadStateItem));
+        fileMenu.add(openTraceItem);
+        fileMenu.addSeparator();
+        fileMenu.add(saveStateItem);
+        fileMenu.add(loadStateItem);
+        menuBar.add(fileMenu);
+        // Menu: navegar no histórico
+        JMenu editMenu = new JMenu("Editar");
+        JMenuItem undoItem = new JMenuItem("Desfazer");
+        undoItem.setAccelerator(KeyStroke.getKeyStroke("control Z"));
+        JMenuItem redoItem = new JMenuItem("Refazer");
+        redoItem.setAccelerator(KeyStroke.getKeyStroke("control Y"));
+        JMenuItem seekItem = new JMenuItem("Ir para passo...");
+        seekItem.setAccelerator(KeyStroke.getKeyStroke("control G"));
+        manualControls.addAll(Arrays.asList(undoItem, redoItem, seekItem));
+        editMenu.add(undoItem);
+        editMenu.add(redoItem);
+        editMenu.add(seekItem);
+        menuBar.add(editMenu);
+        setJMenuBar(menuBar);
 
         // Controles
         JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        JButton runBtn = new JButton("Run");
+        runBtn = new JButton("Run");
         JButton stepBtn = new JButton("Step");
+        undoBtn = new JButton("Undo");
+        redoBtn = new JButton("Redo");
         JButton resetBtn = new JButton("Reset");
         JButton exitBtn = new JButton("Exit");
+        speedCombo = new JComboBox<>(SPEED_NAMES);
         top.add(runBtn);
         top.add(stepBtn);
+        top.add(undoBtn);
+        top.add(redoBtn);
         top.add(resetBtn);
         top.add(exitBtn);
+        top.add(new JLabel("Velocidade:"));
+        top.add(speedCombo);
 
         // Painel direito com informações
         JPanel right = new JPanel();
         right.setLayout(new BoxLayout(right, BoxLayout.Y_AXIS));
         right.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
 
-        algoCombo = new JComboBox<>(new String[]{"First Fit", "Next Fit", "Best Fit"});
+        algoCombo = new JComboBox<>(Strategies.NAMES);
         right.add(new JLabel("Algoritmo:"));
         right.add(algoCombo);
         right.add(Box.createVerticalStrut(6));
 
         JPanel allocPanel = new JPanel(new GridLayout(0, 2, 6, 6));
         processIdField = new JTextField("P" + (int) (Math.random() * 100));
-        sizeSpinner = new JSpinner(new SpinnerNumberModel(8, 2, 128, 2));
+        // 8KB (ou a memória toda, se menor) arredondado para cima até um múltiplo da unidade
+        int initialSize = (Math.min(8, totalKb) + unitKb - 1) / unitKb * unitKb;
+        sizeSpinner = new JSpinner(new SpinnerNumberModel(initialSize, unitKb, totalKb, unitKb));
         allocPanel.add(new JLabel("Processo (ID):"));
         allocPanel.add(processIdField);
         allocPanel.add(new JLabel("Tamanho (KB):"));
@@ -65,61 +128,142 @@ public class SimulatorFrame extends JFrame {
         JButton demoBtn = new JButton("Gerar Carga");
         right.add(Box.createVerticalStrut(6));
         right.add(demoBtn);
+        right.add(Box.createVerticalStrut(6));
+        JButton compactBtn = new JButton("Compactar");
+        right.add(compactBtn);
 
         right.add(Box.createVerticalStrut(6));
-        statusLabel = new JLabel(statusText("STOP"));
+        statusLabel = new JLabel(statusText("STOP", SimulationSnapshot.capture(manager, 0)));
         right.add(statusLabel);
 
         // Tabela de processos em execução
-        tableModel = new DefaultTableModel(new Object[]{"ID", "Alocado (KB)"}, 0) {
+        // Tabela de processos: recebe do manager só o que mudou; clique no cabeçalho ordena, o filtro busca por ID
+        tableModel = new ProcessTableModel(manager.processSizes());
+        manager.setProcessListener(tableModel);
+        table = new JTable(tableModel);
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
+            public void mouseClicked(MouseEvent e) {
+                int column = table.columnAtPoint(e.getPoint());
+                if (column >= 0) tableModel.toggleSort(table.convertColumnIndexToModel(column));
             }
-        };
-        table = new JTable(tableModel);
+        });
         JScrollPane tableScroll = new JScrollPane(table);
         tableScroll.setPreferredSize(new Dimension(240, 220));
+        filterField = new JTextField();
+        filterField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                onFilterChanged();
+            }
+
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+                onFilterChanged();
+            }
+
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+                onFilterChanged();
+            }
+        });
+        processCountLabel = new JLabel();
+        JPanel filterPanel = new JPanel(new BorderLayout(4, 0));
+        filterPanel.add(new JLabel("Filtro:"), BorderLayout.WEST);
+        filterPanel.add(filterField, BorderLayout.CENTER);
+        filterPanel.add(processCountLabel, BorderLayout.SOUTH);
+        JPanel tablePanel = new JPanel(new BorderLayout(0, 4));
+        tablePanel.add(filterPanel, BorderLayout.NORTH);
+        tablePanel.add(tableScroll, BorderLayout.CENTER);
 
         add(top, BorderLayout.NORTH);
         add(memoryPanel, BorderLayout.CENTER);
         JPanel east = new JPanel(new BorderLayout());
         east.add(right, BorderLayout.NORTH);
-        east.add(tableScroll, BorderLayout.CENTER);
+        east.add(tablePanel, BorderLayout.CENTER);
         add(east, BorderLayout.EAST);
 
         // Escolha de algoritmos
         algoCombo.addActionListener(e -> {
-            String sel = (String) algoCombo.getSelectedItem();
-            if ("First Fit".equals(sel)) manager.setAlgorithm(new FirstFit());
-            else if ("Next Fit".equals(sel)) manager.setAlgorithm(new NextFit());
-            else manager.setAlgorithm(new BestFit());
+            // motores próprios (Buddy, TLSF) recomeçam com a memória vazia
+            Strategies.apply(manager, (String) algoCombo.getSelectedItem());
+            timeline.restart(); // o log só reproduz o mesmo resultado com a mesma estratégia
+            refresh();
         });
 
         allocBtn.addActionListener(e -> onAlloc());
         freeBtn.addActionListener(e -> onFree());
         demoBtn.addActionListener(e -> onGenerateDemo());
+        compactBtn.addActionListener(e -> onCompact());
+        openTraceItem.addActionListener(e -> onOpenTrace());
+        saveStateItem.addActionListener(e -> onSaveState());
+        loadStateItem.addActionListener(e -> onLoadState());
         stepBtn.addActionListener(e -> onStep());
         runBtn.addActionListener(e -> onRun());
+        undoBtn.addActionListener(e -> onUndo());
+        redoBtn.addActionListener(e -> onRedo());
+        undoItem.addActionListener(e -> onUndo());
+        redoItem.addActionListener(e -> onRedo());
+        seekItem.addActionListener(e -> onSeek());
         resetBtn.addActionListener(e -> onReset());
         exitBtn.addActionListener((ActionEvent e) -> System.exit(0));
+        speedCombo.addActionListener(e -> {
+            if (runner != null) runner.setSpeed(selectedSpeed());
+        });
+        // durante uma execução o manager e a carga pertencem à thread de simulação
+        manualControls.addAll(Arrays.asList(stepBtn, undoBtn, redoBtn, algoCombo, allocBtn, freeBtn, demoBtn, compactBtn));
+
+        // a EDT busca o retrato mais recente ~60x/s e ignora os que já desenhou
+        frameTimer = new javax.swing.Timer(16, e -> {
+            if (runner != null) render(runner.latest(), false);
+        });
 
         pack();
         setLocationRelativeTo(null);
     }
 
-    private String statusText(String state) {
-        return "status: " + state + "    time: " + manager.getSteps();
+    private String statusText(String state, SimulationSnapshot s) {
+        String text = "status: " + state + "    time: " + s.steps;
+        return s.opsPerSecond > 0 ? text + String.format("    %.0f ops/s", s.opsPerSecond) : text;
     }
 
+    // Fora de uma execução a EDT é dona do manager: captura e desenha na hora
     private void refresh() {
-        memoryPanel.repaint();
-        // Atualizar tabela de processos
-        tableModel.setRowCount(0);
-        for (Map.Entry<String, Integer> en : processSize.entrySet()) {
-            tableModel.addRow(new Object[]{en.getKey(), en.getValue()});
+        render(SimulationSnapshot.capture(manager, 0, lastRendered), true);
+    }
+
+    private void render(SimulationSnapshot s, boolean force) {
+        if (s == lastRendered && !force) return; // nada novo desde o último quadro
+        lastRendered = s;
+        memoryPanel.setSnapshot(s);
+        long now = System.nanoTime();
+        if (force || now - lastTableUpdate >= TABLE_INTERVAL_NANOS) {
+            lastTableUpdate = now;
+            // Atualizar tabela de processos com as mudanças acumuladas
+            tableModel.applyPending();
+            updateProcessCount();
+        }
+        if (runner == null) {
+            undoBtn.setEnabled(timeline.canUndo());
+            redoBtn.setEnabled(timeline.canRedo());
         }
-        statusLabel.setText(statusText("RUNNING"));
+        String state = runner == null ? "STOP" : runner.isPaused() ? "PAUSED" : "RUNNING";
+        statusLabel.setText(statusText(state, s));
+    }
+
+    private void onFilterChanged() {
+        tableModel.setFilter(filterField.getText());
+        updateProcessCount();
+    }
+
+    private void updateProcessCount() {
+        int total = tableModel.getProcessCount();
+        int shown = tableModel.getRowCount();
+        processCountLabel.setText(shown == total ? total + " processos" : shown + " de " + total + " processos");
+    }
+
+    private int selectedSpeed() {
+        return SPEEDS[speedCombo.getSelectedIndex()];
     }
 
     private void onAlloc() {
@@ -129,11 +273,9 @@ public class SimulatorFrame extends JFrame {
             JOptionPane.showMessageDialog(this, "Informe um ID.", "Aviso", JOptionPane.WARNING_MESSAGE);
             return;
         }
-        boolean ok = manager.allocate(processId, size);
+        boolean ok = timeline.apply(Operation.alloc(processId, size));
         if (!ok) {
             JOptionPane.showMessageDialog(this, "Falha na alocação. Memória insuficiente", "Erro", JOptionPane.ERROR_MESSAGE);
-        } else {
-            processSize.put(processId, processSize.getOrDefault(processId, 0) + MemoryManager.align(size));
         }
         refresh();
     }
@@ -144,15 +286,24 @@ public class SimulatorFrame extends JFrame {
             JOptionPane.showMessageDialog(this, "Informe um ID para liberar.", "Aviso", JOptionPane.WARNING_MESSAGE);
             return;
         }
-        int released = manager.free(processId);
-        if (released == 0) {
+        boolean released = timeline.apply(Operation.free(processId));
+        if (!released) {
             JOptionPane.showMessageDialog(this, "ID não encontrado.", "Aviso", JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            processSize.remove(processId);
         }
         refresh();
     }
 
+    // Desliza os blocos ocupados para o início e mostra quanto foi copiado
+    private void onCompact() {
+        int moved = manager.compact();
+        // a compactação manual não é uma operação do log: se moveu blocos, o histórico recomeça aqui
+        if (moved > 0) timeline.restart();
+        refresh();
+        String message = moved == 0 ? "Nada a mover (memória já compacta ou motor sem relocação)."
+                : "Compactação moveu " + moved + "KB. Total realocado desde o reset: " + manager.getRelocatedKb() + "KB.";
+        JOptionPane.showMessageDialog(this, message, "Compactar", JOptionPane.INFORMATION_MESSAGE);
+    }
+
     private void onGenerateDemo() {
         workload.clear();
         Workload demo = Workload.demo();
@@ -162,53 +313,162 @@ public class SimulatorFrame extends JFrame {
         JOptionPane.showMessageDialog(this, "Carga de demonstração criada. Use Step/Run.", "OK", JOptionPane.INFORMATION_MESSAGE);
     }
 
+    // O trace é lido sob demanda pelo Step/Run, então arquivos grandes não são carregados de uma vez
+    private void onOpenTrace() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Trace binário (*.mstr)", "mstr"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+        try {
+            workload.clear();
+            workload.setTrace(file.toPath(), 0);
+            JOptionPane.showMessageDialog(this, "Trace " + file.getName() + " carregado. Use Step/Run.", "OK", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Não foi possível abrir o trace: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Salva a memória e o que falta da carga (passos desfeitos, fila e posição no trace)
+    private void onSaveState() {
+        if (!manager.supportsCheckpoints()) {
+            JOptionPane.showMessageDialog(this, "O motor " + manager.getAlgorithmName() + " não permite salvar o estado.",
+                    "Aviso", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Estado da simulação (*.msst)", "msst"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+        if (!file.getName().contains(".")) file = new File(file.getPath() + ".msst");
+        try {
+            StateFile.save(file.toPath(), manager, timeline.redoOperations(), workload);
+            JOptionPane.showMessageDialog(this, "Estado salvo em " + file.getName() + " (passo " + manager.getSteps() + ").",
+                    "OK", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Não foi possível salvar o estado: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Retoma um estado salvo: a memória volta como estava e Step/Run continuam a carga de onde ela parou
+    private void onLoadState() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("Estado da simulação (*.msst)", "msst"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = chooser.getSelectedFile();
+        try {
+            StateFile state = StateFile.load(file.toPath());
+            MemoryCheckpoint c = state.getCheckpoint();
+            if (c.getTotalKb() != manager.getTotalKb() || c.getUnitKb() != manager.getUnitKb()) {
+                JOptionPane.showMessageDialog(this, "O estado é de uma memória de " + c.getTotalKb() + "KB em unidades de "
+                        + c.getUnitKb() + "KB; abra o simulador com esse tamanho.", "Aviso", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            algoCombo.setSelectedItem(c.getAlgorithmName());
+            state.restore(manager, workload);
+            timeline.restart(); // o estado carregado é o novo passo 0
+            refresh();
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Não foi possível abrir o estado: " + ex.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     private void onStep() {
         stepOnce(true);
     }
 
+    // Refaz o próximo passo desfeito, se houver; senão executa a próxima operação da carga
     private void stepOnce(boolean showDialogs) {
-        Operation op = workload.poll();
-        if (op == null) {
+        if (!timeline.step()) {
             if (showDialogs) {
                 JOptionPane.showMessageDialog(this, "Sem operações pendentes.", "Info", JOptionPane.INFORMATION_MESSAGE);
             }
             return;
         }
-        if (op.type == Operation.Type.ALLOC) {
-            boolean ok = manager.allocate(op.processId, op.sizeKb);
-            if (ok)
-                processSize.put(op.processId, processSize.getOrDefault(op.processId, 0) + MemoryManager.align(op.sizeKb));
-        } else {
-            manager.free(op.processId);
-            processSize.remove(op.processId);
+        refresh();
+    }
+
+    private void onUndo() {
+        timeline.undo();
+        refresh();
+    }
+
+    private void onRedo() {
+        timeline.redo();
+        refresh();
+    }
+
+    // Pula para o passo informado: volta pelo checkpoint mais próximo ou avança puxando operações da carga
+    private void onSeek() {
+        String answer = JOptionPane.showInputDialog(this, "Passo (" + timeline.firstStep() + " a " + timeline.length() + " ou adiante na carga):",
+                timeline.getPosition());
+        if (answer == null) return;
+        int target = -1;
+        try {
+            target = Integer.parseInt(answer.trim());
+        } catch (NumberFormatException ignored) {
+        }
+        if (target < 0) {
+            JOptionPane.showMessageDialog(this, "Passo inválido: " + answer, "Aviso", JOptionPane.WARNING_MESSAGE);
+            return;
         }
+        int reached = timeline.seek(target);
         refresh();
+        if (reached > target) {
+            JOptionPane.showMessageDialog(this, "O histórico só guarda a partir do passo " + reached + ".", "Info",
+                    JOptionPane.INFORMATION_MESSAGE);
+        } else if (reached < target) {
+            JOptionPane.showMessageDialog(this, "A carga acabou no passo " + reached + ".", "Info", JOptionPane.INFORMATION_MESSAGE);
+        }
     }
 
+    // Run inicia a execução em thread própria; durante ela o botão alterna entre pausar e continuar
     private void onRun() {
-        if (workload.isEmpty()) {
+        if (runner != null) {
+            if (runner.isPaused()) {
+                runner.resume();
+                runBtn.setText("Pause");
+            } else {
+                runner.pause();
+                runBtn.setText("Resume");
+            }
+            return;
+        }
+        if (!timeline.canRedo() && workload.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Gere a carga primeiro (Gerar Carga).", "Info", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
-        // roda o laço fora da EDT
-        new Thread(() -> {
-            while (!workload.isEmpty()) {
-                try {
-                    // aplica um passo na EDT para manter a UI segura
-                    javax.swing.SwingUtilities.invokeAndWait(() -> stepOnce(false));
-                    Thread.sleep(120);
-                } catch (Exception ignored) {
-                }
-            }
-            javax.swing.SwingUtilities.invokeLater(() -> statusLabel.setText(statusText("STOP")));
-        }).start();
+        SimulationRunner started = new SimulationRunner(timeline, selectedSpeed(),
+                () -> SwingUtilities.invokeLater(this::onRunFinished));
+        runner = started;
+        for (Component c : manualControls) c.setEnabled(false);
+        runBtn.setText("Pause");
+        frameTimer.start();
+        started.start();
+    }
+
+    // Chamado na EDT quando a thread de simulação termina (fim da carga ou Reset)
+    private void onRunFinished() {
+        if (runner == null || !runner.isFinished()) return; // aviso atrasado de uma execução anterior
+        SimulationSnapshot last = runner.latest();
+        runner = null;
+        frameTimer.stop();
+        for (Component c : manualControls) c.setEnabled(true);
+        runBtn.setText("Run");
+        render(last, true);
+    }
+
+    private void stopRunner() {
+        if (runner != null) {
+            runner.stop();
+            onRunFinished();
+        }
     }
 
     private void onReset() {
+        stopRunner();
         manager.reset();
-        processSize.clear();
         workload.clear();
-        statusLabel.setText(statusText("STOP"));
+        timeline.restart();
         refresh();
     }
 }
\ No newline at end of file
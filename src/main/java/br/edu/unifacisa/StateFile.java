@@ -0,0 +1,347 @@
+package br.edu.unifacisa;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Estado completo de uma simulação em arquivo binário (.msst), para pausar uma reprodução longa e retomá-la em
+// outro processo: o MemoryCheckpoint do manager e a carga que falta (operações pendentes na ordem e, se a carga
+// vem de um trace ou de um WorkloadGenerator, o arquivo ou a descrição do gerador e quantas operações dele já
+// foram consumidas).
+//
+// Formato (little-endian):
+//   "MSST" | versão (int)
+//   totalKb, unitKb (int) | steps, requestedKb, splits, coalesces, relocatedKb, relocatedBlocks, compactions,
+//   compactionCreditKb (long) | lastNextFitPosition (int)
+//   política de compactação: modo (ordinal), budgetKb (int), threshold (double) | limite da junção adiada (int)
+//   tabela de strings: quantidade (int), cada uma tamanho em bytes (int) + UTF-8, completada até múltiplo de 4;
+//     [0] nome da estratégia, [1] caminho do trace ("" sem trace), [2] descrição do gerador ("" sem gerador),
+//     [3, 3 + processos) IDs dos processos em memória e, depois, IDs que só aparecem nas operações pendentes
+//   blocos: quantidade (int) | início[] | tamanho[] | dono[] (índice do processo, -1 livre)
+//   processos: quantidade (int) | KB pedidos[]
+//   junção adiada pendente: quantidade (int) | início[]
+//   operações pendentes: quantidade (int) | string do processo[] | tamanho[] (-1 = FREE)
+//   operações do trace ou do gerador já consumidas (long)
+// As colunas são vetores int seguidos: a leitura mapeia o arquivo (FileChannel.map) e copia cada coluna de uma
+// vez por um IntBuffer, sem decodificar bloco a bloco. Antes de virar checkpoint, os blocos são conferidos (seguidos,
+// cobrindo a memória inteira, cada processo com ao menos um bloco), para um arquivo corrompido não montar uma
+// árvore inconsistente.
+public final class StateFile {
+    static final byte[] MAGIC = {'M', 'S', 'S', 'T'};
+    static final int VERSION = 3;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final MemoryCheckpoint checkpoint;
+    private final CompactionPolicy compaction;
+    private final int deferredCoalescing;
+    private final List<Operation> pending;
+    private final Path trace;
+    private final String generator;
+    private final long consumed;
+
+    private StateFile(MemoryCheckpoint checkpoint, CompactionPolicy compaction, int deferredCoalescing,
+                      List<Operation> pending, Path trace, String generator, long consumed) {
+        this.checkpoint = checkpoint;
+        this.compaction = compaction;
+        this.deferredCoalescing = deferredCoalescing;
+        this.pending = pending;
+        this.trace = trace;
+        this.generator = generator;
+        this.consumed = consumed;
+    }
+
+    public MemoryCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    public CompactionPolicy getCompaction() {
+        return compaction;
+    }
+
+    // Limite da junção adiada salvo (0: junção imediata)
+    public int getDeferredCoalescing() {
+        return deferredCoalescing;
+    }
+
+    // Operações ainda não aplicadas, antes das do trace ou do gerador
+    public List<Operation> getPending() {
+        return pending;
+    }
+
+    // Trace de onde a carga continua (null se não havia)
+    public Path getTrace() {
+        return trace;
+    }
+
+    // Descrição do gerador de onde a carga continua (WorkloadGenerator.parse; null se não havia)
+    public String getGenerator() {
+        return generator;
+    }
+
+    // Operações do trace ou do gerador já consumidas
+    public long getConsumed() {
+        return consumed;
+    }
+
+    // Salva o estado do manager (só estratégias sobre a BlockTree) e a carga restante: pending antes do que
+    // falta na workload (a fila dela e o restante do trace ou do gerador, se foram abertos por Workload.setTrace
+    // ou Workload.setGenerator; outras fontes não têm como ser reabertas e são recusadas)
+    public static void save(Path file, MemoryManager manager, List<Operation> pending, Workload workload) throws IOException {
+        List<Operation> all = new ArrayList<>(pending);
+        Path trace = null;
+        String generator = null;
+        long consumed = 0;
+        if (workload != null) {
+            trace = workload.getTracePath();
+            generator = workload.getGeneratorSpec();
+            if (workload.hasSource() && trace == null && generator == null) {
+                throw new IllegalArgumentException("A fonte da carga não pode ser salva (só trace ou gerador com descrição)");
+            }
+            all.addAll(workload.queued());
+            consumed = workload.getConsumed();
+        }
+        save(file, manager.checkpoint(), manager.getCompaction(), manager.getDeferredCoalescing(), all, trace,
+                generator, consumed);
+    }
+
+    public static void save(Path file, MemoryCheckpoint c, CompactionPolicy compaction, int deferredCoalescing,
+                            List<Operation> pending, Path trace, String generator, long consumed) throws IOException {
+        // tabela de strings: os processos em memória primeiro, na mesma ordem das colunas
+        List<String> strings = new ArrayList<>(c.processNames.length + 3);
+        strings.add(c.algorithmName);
+        strings.add(trace == null ? "" : trace.toAbsolutePath().toString());
+        strings.add(generator == null ? "" : generator);
+        strings.addAll(Arrays.asList(c.processNames));
+        Map<String, Integer> refs = new HashMap<>();
+        for (int p = 0; p < c.processNames.length; p++) refs.put(c.processNames[p], p + 3);
+        int[] opRefs = new int[pending.size()];
+        int[] opSizes = new int[pending.size()];
+        for (int i = 0; i < opRefs.length; i++) {
+            Operation op = pending.get(i);
+            Integer ref = refs.get(op.processId);
+            if (ref == null) {
+                ref = strings.size();
+                strings.add(op.processId);
+                refs.put(op.processId, ref);
+            }
+            opRefs[i] = ref;
+            opSizes[i] = op.type == Operation.Type.FREE ? -1 : op.sizeKb;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.bytes(MAGIC);
+            out.putInt(VERSION);
+            out.putInt(c.totalKb);
+            out.putInt(c.unitKb);
+            for (long v : new long[]{c.steps, c.requestedKb, c.splits, c.coalesces, c.relocatedKb, c.relocatedBlocks,
+                    c.compactions, c.compactionCreditKb}) {
+                out.putLong(v);
+            }
+            out.putInt(c.lastNextFitPosition);
+            out.putInt(compaction.mode.ordinal());
+            out.putInt(compaction.budgetKb);
+            out.putLong(Double.doubleToLongBits(compaction.threshold));
+            out.putInt(deferredCoalescing);
+            out.putInt(strings.size());
+            long stringBytes = 0;
+            for (String s : strings) {
+                byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+                out.putInt(utf8.length);
+                out.bytes(utf8);
+                stringBytes += utf8.length;
+            }
+            out.bytes(new byte[(int) ((4 - stringBytes % 4) % 4)]);
+            out.column(c.blockStart.length, c.blockStart, c.blockSize, c.blockOwner);
+            out.column(c.processNames.length, c.processRequestedKb);
+            out.column(c.pendingCoalesce.length, c.pendingCoalesce);
+            out.column(opRefs.length, opRefs, opSizes);
+            out.putLong(consumed);
+            out.flush();
+        }
+    }
+
+    public static StateFile load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Estado maior que 2GB: " + file);
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            try {
+                return read(map, file);
+            } catch (java.nio.BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                     | NegativeArraySizeException e) {
+                throw new IOException("Estado corrompido ou incompleto: " + file, e);
+            }
+        }
+    }
+
+    private static StateFile read(ByteBuffer in, Path file) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("Não é um estado MSST: " + file);
+        int version = in.getInt();
+        if (version != VERSION) throw new IOException("Versão de estado não suportada: " + version);
+        int totalKb = in.getInt();
+        int unitKb = in.getInt();
+        long steps = in.getLong(), requestedKb = in.getLong(), splits = in.getLong(), coalesces = in.getLong();
+        long relocatedKb = in.getLong(), relocatedBlocks = in.getLong(), compactions = in.getLong();
+        long compactionCreditKb = in.getLong();
+        int lastNextFitPosition = in.getInt();
+        CompactionPolicy.Mode[] modes = CompactionPolicy.Mode.values();
+        int mode = in.getInt(), budgetKb = in.getInt();
+        double threshold = Double.longBitsToDouble(in.getLong());
+        int deferredCoalescing = in.getInt();
+        if (mode < 0 || mode >= modes.length || deferredCoalescing < 0) throw new IOException("Configuração inválida: " + file);
+        CompactionPolicy compaction = switch (modes[mode]) {
+            case NONE -> CompactionPolicy.none();
+            case STOP_THE_WORLD -> CompactionPolicy.stopTheWorld();
+            case INCREMENTAL -> CompactionPolicy.incremental(budgetKb);
+            case THRESHOLD -> CompactionPolicy.threshold(threshold);
+        };
+        String[] strings = new String[in.getInt()];
+        long stringBytes = 0;
+        for (int i = 0; i < strings.length; i++) {
+            byte[] utf8 = new byte[in.getInt()];
+            in.get(utf8);
+            strings[i] = new String(utf8, StandardCharsets.UTF_8);
+            stringBytes += utf8.length;
+        }
+        in.position(in.position() + (int) ((4 - stringBytes % 4) % 4));
+
+        int blockCount = in.getInt();
+        int[] start = ints(in, blockCount), blockSize = ints(in, blockCount), owner = ints(in, blockCount);
+        int processCount = in.getInt();
+        int[] requested = ints(in, processCount);
+        int[] pendingCoalesce = ints(in, in.getInt());
+        int opCount = in.getInt();
+        int[] opRefs = ints(in, opCount), opSizes = ints(in, opCount);
+        long consumed = in.getLong();
+
+        if (processCount > strings.length - 3) throw new IOException("Tabela de strings menor que os processos: " + file);
+        String[] names = Arrays.copyOfRange(strings, 3, 3 + processCount);
+        checkBlocks(totalKb, unitKb, start, blockSize, owner, processCount, file);
+        for (int s : pendingCoalesce) {
+            if (s < 0 || s >= totalKb) throw new IOException("Junção pendente fora da memória (" + s + "KB): " + file);
+        }
+        List<Operation> pending = new ArrayList<>(opCount);
+        for (int i = 0; i < opCount; i++) {
+            String processId = strings[opRefs[i]];
+            pending.add(opSizes[i] < 0 ? Operation.free(processId) : Operation.alloc(processId, opSizes[i]));
+        }
+        MemoryCheckpoint checkpoint = new MemoryCheckpoint(totalKb, unitKb, strings[0], steps, requestedKb, splits,
+                coalesces, relocatedKb, relocatedBlocks, compactions, compactionCreditKb, lastNextFitPosition,
+                start, blockSize, owner, names, requested, pendingCoalesce);
+        Path trace = strings[1].isEmpty() ? null : Path.of(strings[1]);
+        String generator = strings[2].isEmpty() ? null : strings[2];
+        return new StateFile(checkpoint, compaction, deferredCoalescing, pending, trace, generator, consumed);
+    }
+
+    // Os blocos precisam começar em 0, ser seguidos e somar a memória, e todo processo precisa de ao menos um bloco
+    private static void checkBlocks(int totalKb, int unitKb, int[] start, int[] size, int[] owner, int processCount,
+                                    Path file) throws IOException {
+        if (unitKb <= 0 || totalKb <= 0 || totalKb % unitKb != 0) {
+            throw new IOException("Memória inválida (" + totalKb + "KB/" + unitKb + "KB): " + file);
+        }
+        boolean[] owns = new boolean[processCount];
+        long end = 0;
+        for (int b = 0; b < start.length; b++) {
+            if (start[b] != end || size[b] <= 0 || size[b] % unitKb != 0) {
+                throw new IOException("Bloco " + b + " fora de sequência (" + start[b] + "KB, " + size[b] + "KB): " + file);
+            }
+            if (owner[b] < -1 || owner[b] >= processCount) throw new IOException("Dono de bloco inválido (" + owner[b] + "): " + file);
+            if (owner[b] >= 0) owns[owner[b]] = true;
+            end += size[b];
+        }
+        if (end != totalKb) throw new IOException("Os blocos somam " + end + "KB, a memória tem " + totalKb + "KB: " + file);
+        for (int p = 0; p < processCount; p++) {
+            if (!owns[p]) throw new IOException("Processo sem blocos na posição " + p + ": " + file);
+        }
+    }
+
+    // Põe o manager no estado salvo (com a estratégia, a compactação e a junção adiada salvas) e troca o conteúdo
+    // da workload pela carga restante, com o trace ou o gerador reaberto na operação seguinte à última consumida
+    public void restore(MemoryManager manager, Workload workload) throws IOException {
+        Strategies.apply(manager, checkpoint.algorithmName);
+        manager.setCompaction(compaction);
+        manager.setDeferredCoalescing(deferredCoalescing);
+        manager.restore(checkpoint);
+        workload.clear();
+        for (Operation op : pending) workload.add(op);
+        if (trace != null) workload.setTrace(trace, consumed);
+        else if (generator != null) workload.setGenerator(generator, consumed);
+    }
+
+    private static int[] ints(ByteBuffer in, int count) {
+        int[] values = new int[count];
+        in.asIntBuffer().get(values);
+        in.position(in.position() + count * 4);
+        return values;
+    }
+
+    // Escrita em blocos de até 1MB por um buffer direto reaproveitado
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int v) throws IOException {
+            ensure(4);
+            buffer.putInt(v);
+        }
+
+        void putLong(long v) throws IOException {
+            ensure(8);
+            buffer.putLong(v);
+        }
+
+        void bytes(byte[] b) throws IOException {
+            int offset = 0;
+            while (offset < b.length) {
+                ensure(1);
+                int n = Math.min(buffer.remaining(), b.length - offset);
+                buffer.put(b, offset, n);
+                offset += n;
+            }
+        }
+
+        // Quantidade seguida das colunas, cada uma com count valores
+        void column(int count, int[]... columns) throws IOException {
+            putInt(count);
+            for (int[] values : columns) {
+                int offset = 0;
+                while (offset < count) {
+                    ensure(4);
+                    int n = Math.min(buffer.remaining() / 4, count - offset);
+                    buffer.asIntBuffer().put(values, offset, n);
+                    buffer.position(buffer.position() + n * 4);
+                    offset += n;
+                }
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+    }
+}
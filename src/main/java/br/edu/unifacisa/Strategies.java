@@ -0,0 +1,29 @@
+package br.edu.unifacisa;
+
+import java.util.Locale;
+
+// Catálogo das estratégias de alocação, usado pela interface e pelas execuções sem interface
+public final class Strategies {
+    public static final String[] NAMES = {"First Fit", "Next Fit", "Best Fit", "Buddy", "TLSF", "Bitmap"};
+
+    private Strategies() {
+    }
+
+    // Aplica a estratégia pelo nome de exibição ou abreviado ("First Fit", "first", "tlsf"...).
+    // Motores próprios (Buddy, TLSF, Bitmap) reiniciam a memória.
+    public static void apply(MemoryManager manager, String name) {
+        switch (normalize(name)) {
+            case "first", "firstfit" -> manager.setAlgorithm(new FirstFit());
+            case "next", "nextfit" -> manager.setAlgorithm(new NextFit());
+            case "best", "bestfit" -> manager.setAlgorithm(new BestFit());
+            case "buddy" -> manager.setEngine(new BuddyAllocator());
+            case "tlsf" -> manager.setEngine(new TlsfAllocator());
+            case "bitmap" -> manager.setEngine(new BitmapAllocator());
+            default -> throw new IllegalArgumentException("Estratégia desconhecida: " + name);
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.replace(" ", "").replace("-", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,296 @@
+package br.edu.unifacisa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Histórico navegável de uma simulação: as operações aplicadas ficam em um log compacto (tamanho e referência ao
+// nome, 8 bytes por operação) e a cada interval operações o MemoryManager é copiado em um MemoryCheckpoint.
+// Voltar ou pular para o passo N restaura o checkpoint anterior mais próximo e reaplica no máximo interval - 1
+// operações do log, então o custo de um seek depende do intervalo, não do tamanho do trace.
+//
+// undo()/redo() são seeks de um passo. Aplicar uma operação nova depois de um undo descarta o que havia adiante.
+// Com um Workload de origem, step() e seek() além do fim do log puxam as próximas operações dela.
+// Nos motores próprios (Buddy, TLSF, Bitmap) não há checkpoints intermediários: voltar reinicia a memória e
+// reaplica o log desde o início, então só é possível se a memória estava vazia no restart().
+//
+// O histórico é limitado para que um Run longo não guarde o trace inteiro: quando os checkpoints somam mais de
+// checkpointBudget blocos, metade deles é descartada (um sim, um não) e o intervalo dobra; quando há mais de
+// historyLimit passos para trás, o início do log é descartado até um checkpoint, que vira o passo mais antigo
+// alcançável (nos motores próprios o histórico recomeça no passo atual). Os passos continuam numerados desde o
+// restart().
+public class Timeline {
+    public static final int DEFAULT_INTERVAL = 1024;
+    public static final int DEFAULT_HISTORY_LIMIT = 1 << 20;
+    public static final long DEFAULT_CHECKPOINT_BUDGET = 1L << 22;
+
+    private final MemoryManager manager;
+    private int interval;
+    private Workload source;
+    private int historyLimit = DEFAULT_HISTORY_LIMIT;
+    private long checkpointBudget = DEFAULT_CHECKPOINT_BUDGET;
+    private long checkpointBlocks;
+    // passos descartados do início do log; o passo base é o mais antigo alcançável
+    private long base;
+    // false quando o estado do passo base não pode ser refeito (motor próprio sem memória vazia): sem voltar
+    private boolean replayable;
+
+    // log: sizes[i] < 0 marca uma liberação
+    private int[] processRefs = new int[64];
+    private int[] sizes = new int[64];
+    private int length;
+    private final Map<String, Integer> nameRefs = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    // checkpoints.get(k): estado depois de k * interval operações (null no passo 0 = memória reiniciada)
+    private final List<MemoryCheckpoint> checkpoints = new ArrayList<>();
+    private int position;
+
+    private final int initialInterval;
+
+    public Timeline(MemoryManager manager, int interval) {
+        if (interval < 1) throw new IllegalArgumentException("Intervalo de checkpoint deve ser positivo: " + interval);
+        this.manager = manager;
+        this.initialInterval = interval;
+        restart();
+    }
+
+    public Timeline(MemoryManager manager) {
+        this(manager, DEFAULT_INTERVAL);
+    }
+
+    public MemoryManager getManager() {
+        return manager;
+    }
+
+    // De onde step() e seek() tiram operações novas quando chegam ao fim do log (null: só o log)
+    public void setSource(Workload source) {
+        this.source = source;
+    }
+
+    // Limites do histórico: passos guardados para trás (Integer.MAX_VALUE: sem limite) e total de blocos somando
+    // todos os checkpoints
+    public void setHistoryLimit(int steps, long checkpointBlocks) {
+        if (steps < 2 * interval || checkpointBlocks < 1) throw new IllegalArgumentException("Limite de histórico muito pequeno");
+        this.historyLimit = steps;
+        this.checkpointBudget = checkpointBlocks;
+    }
+
+    // Esquece o histórico: o estado atual do manager vira o passo 0
+    public void restart() {
+        length = 0;
+        position = 0;
+        base = 0;
+        interval = initialInterval;
+        nameRefs.clear();
+        names.clear();
+        checkpoints.clear();
+        checkpointBlocks = 0;
+        if (manager.supportsCheckpoints()) {
+            addCheckpoint();
+            replayable = true;
+        } else {
+            // o motor só refaz o log a partir da memória vazia (reset)
+            checkpoints.add(null);
+            replayable = manager.freeKb() == manager.getTotalKb();
+        }
+    }
+
+    // Passo atual (operações aplicadas desde o passo 0)
+    public int getPosition() {
+        return (int) (base + position);
+    }
+
+    // Passo final do log (os que estão adiante de getPosition() podem ser refeitos)
+    public int length() {
+        return (int) (base + length);
+    }
+
+    // Passo mais antigo alcançável por undo()/seek()
+    public int firstStep() {
+        return replayable ? (int) base : getPosition();
+    }
+
+    // Operações entre checkpoints (dobra quando os checkpoints passam do orçamento)
+    public int getInterval() {
+        return interval;
+    }
+
+    public int checkpointCount() {
+        return checkpoints.size();
+    }
+
+    public boolean canUndo() {
+        return position > 0 && replayable;
+    }
+
+    public boolean canRedo() {
+        return position < length;
+    }
+
+    // Operações do log adiante do passo atual (as que redo()/step() refariam), na ordem
+    public List<Operation> redoOperations() {
+        List<Operation> pending = new ArrayList<>(length - position);
+        for (int i = position; i < length; i++) {
+            String processId = names.get(processRefs[i]);
+            pending.add(sizes[i] < 0 ? Operation.free(processId) : Operation.alloc(processId, sizes[i]));
+        }
+        return pending;
+    }
+
+    // Aplica uma operação nova no passo atual, descartando o que havia sido desfeito adiante
+    public boolean apply(Operation op) {
+        truncate(position);
+        append(op);
+        return executeNext();
+    }
+
+    // Próximo passo: refaz o log se houver, senão puxa a próxima operação da origem; false se não há nenhuma
+    public boolean step() {
+        if (position == length && !pull()) return false;
+        executeNext();
+        return true;
+    }
+
+    public void undo() {
+        if (canUndo()) seek(getPosition() - 1);
+    }
+
+    public void redo() {
+        if (canRedo()) seek(getPosition() + 1);
+    }
+
+    // Leva o manager ao estado depois de target operações e devolve o passo alcançado (menor que target se a
+    // origem acabar antes)
+    public int seek(int step) {
+        if (step < 0) throw new IllegalArgumentException("Passo negativo: " + step);
+        // relativo ao passo base; antes dele (ou antes do atual, sem como refazer) o histórico já foi descartado
+        int target = (int) Math.max(step - base, replayable ? 0 : position);
+        while (length < target && pull()) {
+            // completa o log com a origem; as operações são aplicadas abaixo
+        }
+        target = Math.min(target, length);
+        int k = Math.min(target / interval, checkpoints.size() - 1);
+        // restaura quando precisa voltar ou quando o checkpoint está mais perto que a posição atual
+        if (target < position || k * interval > position) {
+            MemoryCheckpoint checkpoint = checkpoints.get(k);
+            if (checkpoint == null) manager.reset();
+            else manager.restore(checkpoint);
+            position = k * interval;
+        }
+        long goal = base + target; // executeNext() pode descartar o início do log e deslocar as posições
+        while (base + position < goal) executeNext();
+        return getPosition();
+    }
+
+    private boolean executeNext() {
+        String processId = names.get(processRefs[position]);
+        int size = sizes[position];
+        boolean ok = size < 0 ? manager.free(processId) > 0 : manager.allocate(processId, size);
+        position++;
+        // checkpoint na primeira vez que o passo múltiplo do intervalo é alcançado
+        if (position % interval == 0 && position / interval == checkpoints.size() && manager.supportsCheckpoints()) {
+            addCheckpoint();
+            if (checkpointBlocks > checkpointBudget) thinCheckpoints();
+        }
+        if (position > historyLimit) dropOldest();
+        return ok;
+    }
+
+    private void addCheckpoint() {
+        MemoryCheckpoint checkpoint = manager.checkpoint();
+        checkpoints.add(checkpoint);
+        checkpointBlocks += checkpoint.blockCount();
+    }
+
+    // Mantém os checkpoints de índice par (passos múltiplos do dobro do intervalo)
+    private void thinCheckpoints() {
+        while (checkpointBlocks > checkpointBudget && checkpoints.size() > 2) {
+            int kept = 0;
+            checkpointBlocks = 0;
+            for (int k = 0; k < checkpoints.size(); k += 2) {
+                MemoryCheckpoint checkpoint = checkpoints.get(k);
+                checkpoints.set(kept++, checkpoint);
+                if (checkpoint != null) checkpointBlocks += checkpoint.blockCount();
+            }
+            checkpoints.subList(kept, checkpoints.size()).clear();
+            interval *= 2;
+        }
+    }
+
+    // Descarta o início do log até um checkpoint, deixando pelo menos metade do limite de passos para trás
+    private void dropOldest() {
+        int k = Math.min((position - historyLimit / 2) / interval, checkpoints.size() - 1);
+        int dropped;
+        if (manager.supportsCheckpoints()) {
+            if (k < 1) return;
+            dropped = k * interval;
+            for (MemoryCheckpoint checkpoint : checkpoints.subList(0, k)) {
+                if (checkpoint != null) checkpointBlocks -= checkpoint.blockCount();
+            }
+            checkpoints.subList(0, k).clear();
+        } else {
+            // sem checkpoints não há como refazer um passo intermediário: o histórico recomeça aqui
+            dropped = position;
+            replayable = false;
+        }
+        System.arraycopy(sizes, dropped, sizes, 0, length - dropped);
+        System.arraycopy(processRefs, dropped, processRefs, 0, length - dropped);
+        length -= dropped;
+        position -= dropped;
+        base += dropped;
+        compactNames();
+    }
+
+    // Refaz a tabela de nomes só com os usados pelo log atual
+    private void compactNames() {
+        List<String> used = new ArrayList<>();
+        nameRefs.clear();
+        for (int i = 0; i < length; i++) {
+            String name = names.get(processRefs[i]);
+            Integer ref = nameRefs.get(name);
+            if (ref == null) {
+                ref = used.size();
+                used.add(name);
+                nameRefs.put(name, ref);
+            }
+            processRefs[i] = ref;
+        }
+        names.clear();
+        names.addAll(used);
+    }
+
+    private boolean pull() {
+        Operation op = source == null ? null : source.poll();
+        if (op == null) return false;
+        append(op);
+        return true;
+    }
+
+    private void append(Operation op) {
+        if (length == sizes.length) {
+            sizes = Arrays.copyOf(sizes, length * 2);
+            processRefs = Arrays.copyOf(processRefs, length * 2);
+        }
+        Integer ref = nameRefs.get(op.processId);
+        if (ref == null) {
+            ref = names.size();
+            names.add(op.processId);
+            nameRefs.put(op.processId, ref);
+        }
+        processRefs[length] = ref;
+        sizes[length++] = op.type == Operation.Type.FREE ? -1 : op.sizeKb;
+    }
+
+    // Descarta o log depois do passo p e os checkpoints posteriores a ele
+    private void truncate(int p) {
+        length = p;
+        while (checkpoints.size() > 1 && (checkpoints.size() - 1) * interval > p) {
+            MemoryCheckpoint removed = checkpoints.remove(checkpoints.size() - 1);
+            if (removed != null) checkpointBlocks -= removed.blockCount();
+        }
+        // nomes que só apareciam nas operações descartadas
+        if (names.size() > 2 * length + 64) compactNames();
+    }
+}
@@ -0,0 +1,96 @@
+package br.edu.unifacisa;
+
+import java.util.Arrays;
+
+// TLB associativa por conjunto: cada entrada guarda (processo, página) -> quadro e o conjunto sai de um hash da
+// chave. Dentro do conjunto a substituição é LRU por carimbo de acesso. As entradas levam o processo na
+// etiqueta (como um ASID), então trocar de processo não esvazia a TLB.
+public class Tlb {
+    public static final int DEFAULT_ENTRIES = 64;
+    public static final int DEFAULT_WAYS = 4;
+
+    private static final long EMPTY = -1;
+
+    private final int ways;
+    private final int setMask;
+    private final long[] tags;
+    private final int[] frames;
+    private final long[] stamps;
+    private long clock;
+
+    // entries é arredondado para cima até sets * ways com sets potência de 2; entries <= ways: totalmente associativa
+    public Tlb(int entries, int ways) {
+        if (entries < 1 || ways < 1) throw new IllegalArgumentException("TLB precisa de ao menos uma entrada");
+        ways = Math.min(ways, entries);
+        int sets = Integer.highestOneBit(Math.max(1, (entries + ways - 1) / ways));
+        if (sets * ways < entries) sets <<= 1;
+        this.ways = ways;
+        this.setMask = sets - 1;
+        this.tags = new long[sets * ways];
+        this.frames = new int[sets * ways];
+        this.stamps = new long[sets * ways];
+        Arrays.fill(tags, EMPTY);
+    }
+
+    public Tlb(int entries) {
+        this(entries, DEFAULT_WAYS);
+    }
+
+    public int entries() {
+        return tags.length;
+    }
+
+    // Quadro da página ou -1 se não está na TLB
+    public int lookup(int process, int page) {
+        long tag = tag(process, page);
+        int base = setOf(tag);
+        for (int i = base; i < base + ways; i++) {
+            if (tags[i] == tag) {
+                stamps[i] = ++clock;
+                return frames[i];
+            }
+        }
+        return -1;
+    }
+
+    public void insert(int process, int page, int frame) {
+        long tag = tag(process, page);
+        int base = setOf(tag);
+        int victim = base;
+        for (int i = base; i < base + ways; i++) {
+            if (tags[i] == EMPTY) {
+                victim = i;
+                break;
+            }
+            if (stamps[i] < stamps[victim]) victim = i;
+        }
+        tags[victim] = tag;
+        frames[victim] = frame;
+        stamps[victim] = ++clock;
+    }
+
+    // Chamado quando a página sai da memória
+    public void invalidate(int process, int page) {
+        long tag = tag(process, page);
+        int base = setOf(tag);
+        for (int i = base; i < base + ways; i++) {
+            if (tags[i] == tag) {
+                tags[i] = EMPTY;
+                return;
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(tags, EMPTY);
+    }
+
+    private static long tag(int process, int page) {
+        return ((long) process << 32) | (page & 0xFFFFFFFFL);
+    }
+
+    private int setOf(long tag) {
+        long h = tag * 0x9E3779B97F4A7C15L;
+        return ((int) (h >>> 40) & setMask) * ways;
+    }
+}
@@ -0,0 +1,223 @@
+package br.edu.unifacisa;
+
+import java.util.Arrays;
+
+// TLSF (two-level segregated fit): os blocos livres ficam em listas separadas por classe de tamanho.
+// O primeiro nível é a potência de 2 do tamanho e o segundo divide cada potência em 16 faixas. Dois níveis
+// de mapas de bits com "find first set" acham uma lista não vazia que atenda o pedido em O(1), sem busca.
+// Na liberação o bloco se junta na hora com os vizinhos físicos livres, achados pelas boundary tags
+// (tamanho no início do bloco e início do bloco gravado na sua última unidade).
+public class TlsfAllocator implements AllocatorEngine {
+    private static final int NIL = -1;
+    private static final int SL_LOG = 4;
+    private static final int SL_COUNT = 1 << SL_LOG;
+    private static final int FL_COUNT = 32;
+
+    private int unitKb;
+    private int units;
+
+    private int flMap;          // bit fl ligado quando alguma lista da linha fl tem blocos
+    private int[] slMap;        // por fl: bit sl ligado quando a lista (fl, sl) tem blocos
+    private int[] heads;        // por classe (fl * SL_COUNT + sl): primeira unidade da lista
+
+    // boundary tags e encadeamento, indexados pela unidade
+    private int[] size;         // no início do bloco: tamanho em unidades
+    private int[] footer;       // na última unidade do bloco: unidade inicial dele
+    private boolean[] free;     // no início do bloco: livre ou ocupado
+    private int[] next;         // no início de um bloco livre: vizinhos na lista da classe
+    private int[] prev;
+    private int freeUnits;
+    private int freeBlocks;
+    private long splits, coalesces;
+
+    // resultado de mapping()
+    private int mappedFl, mappedSl;
+
+    @Override
+    public void reset(int totalKb, int unitKb) {
+        this.unitKb = unitKb;
+        this.units = totalKb / unitKb;
+        flMap = 0;
+        slMap = new int[FL_COUNT];
+        heads = new int[FL_COUNT * SL_COUNT];
+        Arrays.fill(heads, NIL);
+        size = new int[units];
+        footer = new int[units];
+        free = new boolean[units];
+        next = new int[units];
+        prev = new int[units];
+        freeUnits = 0;
+        freeBlocks = 0;
+        splits = 0;
+        coalesces = 0;
+        setBlock(0, units, true);
+        insertFree(0);
+    }
+
+    @Override
+    public int allocate(int requiredKb) {
+        int needed = (requiredKb + unitKb - 1) / unitKb;
+        if (needed > units) return -1;
+
+        // arredonda para a próxima classe: qualquer bloco da lista encontrada comporta o pedido
+        int rounded = needed;
+        if (needed >= SL_COUNT) rounded += (1 << (log2(needed) - SL_LOG)) - 1;
+        mapping(rounded);
+        int block = findSuitable(mappedFl, mappedSl);
+        if (block == NIL) return -1;
+
+        removeFree(block);
+        int blockSize = size[block];
+        if (blockSize > needed) {
+            int remainder = block + needed;
+            setBlock(remainder, blockSize - needed, true);
+            insertFree(remainder);
+            splits++;
+        }
+        setBlock(block, needed, false);
+        return block * unitKb;
+    }
+
+    @Override
+    public int release(int startKb) {
+        int block = startKb / unitKb;
+        if (free[block]) throw new IllegalArgumentException("Bloco em " + startKb + "KB já está livre");
+        int blockSize = size[block];
+        int releasedKb = blockSize * unitKb;
+
+        // junta com o vizinho físico seguinte (início logo após o fim deste)
+        int after = block + blockSize;
+        if (after < units && free[after]) {
+            removeFree(after);
+            blockSize += size[after];
+            coalesces++;
+        }
+        // junta com o vizinho físico anterior (a unidade antes deste guarda o início dele)
+        if (block > 0) {
+            int before = footer[block - 1];
+            if (free[before]) {
+                removeFree(before);
+                blockSize += size[before];
+                block = before;
+                coalesces++;
+            }
+        }
+        setBlock(block, blockSize, true);
+        insertFree(block);
+        return releasedKb;
+    }
+
+    @Override
+    public int blockSizeKb(int startKb) {
+        return size[startKb / unitKb] * unitKb;
+    }
+
+    @Override
+    public int freeKb() {
+        return freeUnits * unitKb;
+    }
+
+    @Override
+    public int freeBlockCount() {
+        return freeBlocks;
+    }
+
+    @Override
+    public long splitCount() {
+        return splits;
+    }
+
+    @Override
+    public long coalesceCount() {
+        return coalesces;
+    }
+
+    @Override
+    public int largestFreeKb() {
+        // menor tamanho da classe mais alta com blocos: qualquer pedido até ele é atendido
+        if (flMap == 0) return 0;
+        int fl = 31 - Integer.numberOfLeadingZeros(flMap);
+        int sl = 31 - Integer.numberOfLeadingZeros(slMap[fl]);
+        return classLowerBound(fl, sl) * unitKb;
+    }
+
+    // O pedido é arredondado para a classe seguinte: com a memória vazia cabe até o início da classe do bloco único
+    @Override
+    public int maxBlockKb() {
+        mapping(units);
+        return classLowerBound(mappedFl, mappedSl) * unitKb;
+    }
+
+    @Override
+    public String getName() {
+        return "TLSF";
+    }
+
+    private int findSuitable(int fl, int sl) {
+        int slBits = slMap[fl] & (-1 << sl);
+        if (slBits == 0) {
+            int flBits = fl + 1 < FL_COUNT ? flMap & (-1 << (fl + 1)) : 0;
+            if (flBits == 0) return NIL;
+            fl = Integer.numberOfTrailingZeros(flBits);
+            slBits = slMap[fl];
+        }
+        sl = Integer.numberOfTrailingZeros(slBits);
+        return heads[fl * SL_COUNT + sl];
+    }
+
+    // Classe (fl, sl) de um tamanho em unidades; tamanhos < SL_COUNT ficam na linha 0, um por faixa
+    private void mapping(int units) {
+        if (units < SL_COUNT) {
+            mappedFl = 0;
+            mappedSl = units;
+        } else {
+            int log = log2(units);
+            mappedFl = log - SL_LOG + 1;
+            mappedSl = (units >>> (log - SL_LOG)) - SL_COUNT;
+        }
+    }
+
+    private static int classLowerBound(int fl, int sl) {
+        return fl == 0 ? sl : (SL_COUNT + sl) << (fl - 1);
+    }
+
+    private static int log2(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n);
+    }
+
+    private void setBlock(int block, int blockSize, boolean isFree) {
+        size[block] = blockSize;
+        free[block] = isFree;
+        footer[block + blockSize - 1] = block;
+    }
+
+    private void insertFree(int block) {
+        mapping(size[block]);
+        int cls = mappedFl * SL_COUNT + mappedSl;
+        int head = heads[cls];
+        next[block] = head;
+        prev[block] = NIL;
+        if (head != NIL) prev[head] = block;
+        heads[cls] = block;
+        flMap |= 1 << mappedFl;
+        slMap[mappedFl] |= 1 << mappedSl;
+        freeUnits += size[block];
+        freeBlocks++;
+    }
+
+    private void removeFree(int block) {
+        mapping(size[block]);
+        int cls = mappedFl * SL_COUNT + mappedSl;
+        int p = prev[block], n = next[block];
+        if (p != NIL) next[p] = n;
+        else heads[cls] = n;
+        if (n != NIL) prev[n] = p;
+        if (heads[cls] == NIL) {
+            slMap[mappedFl] &= ~(1 << mappedSl);
+            if (slMap[mappedFl] == 0) flMap &= ~(1 << mappedFl);
+        }
+        free[block] = false;
+        freeUnits -= size[block];
+        freeBlocks--;
+    }
+}
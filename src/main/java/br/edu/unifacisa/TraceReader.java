@@ -0,0 +1,183 @@
+package br.edu.unifacisa;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Lê um trace binário (ver TraceWriter) em fluxo, por uma janela mapeada em memória do arquivo.
+// advance() posiciona no próximo evento e os campos ficam em type()/processId()/sizeKb()/timestamp(),
+// sem criar objetos por evento; só a definição de um handle cria a String do ID do processo.
+// Arquivos maiores que a janela são remapeados à medida que a leitura avança.
+public class TraceReader implements Closeable {
+    private static final long WINDOW = 1L << 30;   // 1GB por mapeamento
+    private static final int MAX_RECORD = 32;       // maior registro sem nome (tag + 3 varints longos)
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final boolean timestamps;
+    private MappedByteBuffer buffer;
+    private long windowStart;
+
+    private String[] names = new String[64];
+    private Operation.Type type;
+    private int handle;
+    private int sizeKb;
+    private long timestamp;
+    private long events;
+
+    public TraceReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        fileSize = channel.size();
+        map(0);
+        byte[] magic = new byte[TraceWriter.MAGIC.length];
+        if (fileSize < magic.length + 2) throw new IOException("Arquivo curto demais para um trace: " + file);
+        buffer.get(magic);
+        if (!Arrays.equals(magic, TraceWriter.MAGIC)) throw new IOException("Não é um trace MSTR: " + file);
+        int version = buffer.get();
+        if (version != TraceWriter.VERSION) throw new IOException("Versão de trace não suportada: " + version);
+        timestamps = (buffer.get() & TraceWriter.FLAG_TIMESTAMPS) != 0;
+    }
+
+    public boolean hasTimestamps() {
+        return timestamps;
+    }
+
+    // Avança para o próximo evento; false no fim do arquivo
+    public boolean advance() throws IOException {
+        while (true) {
+            ensure(MAX_RECORD);
+            if (!buffer.hasRemaining()) return false;
+            int tag = buffer.get();
+            int h = (int) readVarint();
+            if (tag == TraceWriter.TAG_DEFINE) {
+                int length = (int) readVarint();
+                ensure(length);
+                byte[] name = new byte[length];
+                buffer.get(name);
+                if (h >= names.length) names = Arrays.copyOf(names, Math.max(h + 1, names.length * 2));
+                names[h] = new String(name, StandardCharsets.UTF_8);
+                continue;
+            }
+            handle = h;
+            if (tag == TraceWriter.TAG_ALLOC) {
+                type = Operation.Type.ALLOC;
+                sizeKb = (int) readVarint();
+            } else if (tag == TraceWriter.TAG_FREE) {
+                type = Operation.Type.FREE;
+                sizeKb = 0;
+            } else {
+                throw new IOException("Registro inválido (tag " + tag + ") na posição " + position());
+            }
+            if (timestamps) timestamp += readVarint();
+            events++;
+            return true;
+        }
+    }
+
+    public Operation.Type type() {
+        return type;
+    }
+
+    // Handle do processo no trace (os IDs são reaproveitados depois do FREE)
+    public int processHandle() {
+        return handle;
+    }
+
+    public String processId() {
+        return names[handle];
+    }
+
+    public int sizeKb() {
+        return sizeKb;
+    }
+
+    // Instante do evento (0 em traces sem timestamp)
+    public long timestamp() {
+        return timestamp;
+    }
+
+    public long eventsRead() {
+        return events;
+    }
+
+    // Evento atual como Operation (cria um objeto; para a interface e cargas pequenas)
+    public Operation toOperation() {
+        return type == Operation.Type.ALLOC ? Operation.alloc(processId(), sizeKb) : Operation.free(processId());
+    }
+
+    // Eventos restantes como Iterator, para alimentar uma Workload sob demanda; fecha o leitor ao terminar
+    public Iterator<Operation> operations() {
+        return new OperationIterator();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private final class OperationIterator implements Iterator<Operation>, AutoCloseable {
+        private boolean ready;
+        private boolean done;
+
+        @Override
+        public boolean hasNext() {
+            if (!ready && !done) {
+                try {
+                    ready = advance();
+                    if (!ready) {
+                        done = true;
+                        TraceReader.this.close();
+                    }
+                } catch (IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            }
+            return ready;
+        }
+
+        @Override
+        public Operation next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            ready = false;
+            return toOperation();
+        }
+
+        @Override
+        public void close() throws IOException {
+            done = true;
+            TraceReader.this.close();
+        }
+    }
+
+    private long position() {
+        return windowStart + buffer.position();
+    }
+
+    // Garante n bytes contíguos na janela (ou até o fim do arquivo), remapeando a partir da posição atual
+    private void ensure(int n) throws IOException {
+        if (buffer.remaining() < n && windowStart + buffer.limit() < fileSize) map(position());
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, fileSize - start));
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!buffer.hasRemaining()) throw new IOException("Trace truncado na posição " + position());
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Varint inválido na posição " + position());
+    }
+}
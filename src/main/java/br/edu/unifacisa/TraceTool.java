@@ -0,0 +1,64 @@
+package br.edu.unifacisa;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Utilitário de linha de comando para traces binários.
+//  - import: converte um trace texto (uma operação por linha, no formato de Operation.toString(),
+//    ex.: "ALLOC P1 8KB" / "FREE P1") para o formato binário. Linhas vazias e iniciadas por # são ignoradas.
+//    Com --timestamps, cada linha começa com o instante do evento: "120 ALLOC P1 8KB".
+//  - dump: imprime um trace binário de volta no formato texto.
+//
+// Uso: java -cp out br.edu.unifacisa.TraceTool import entrada.txt saida.mstr [--timestamps]
+//      java -cp out br.edu.unifacisa.TraceTool dump trace.mstr
+public class TraceTool {
+
+    // Converte o texto em trace binário e devolve a quantidade de eventos gravados
+    public static long importText(Path text, Path trace, boolean timestamps) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(text, StandardCharsets.UTF_8);
+             TraceWriter out = new TraceWriter(trace, timestamps)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                try {
+                    if (timestamps) {
+                        int space = line.indexOf(' ');
+                        if (space < 0) throw new IllegalArgumentException("Linha sem timestamp: " + line);
+                        out.write(Operation.parse(line.substring(space + 1)), Long.parseLong(line.substring(0, space)));
+                    } else {
+                        out.write(Operation.parse(line));
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(text + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+            return out.getEvents();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("import")) {
+            boolean timestamps = args.length > 3 && args[3].equals("--timestamps");
+            long events = importText(Path.of(args[1]), Path.of(args[2]), timestamps);
+            System.out.println(events + " eventos gravados em " + args[2] + " (" + Files.size(Path.of(args[2])) + " bytes)");
+        } else if (args.length == 2 && args[0].equals("dump")) {
+            try (TraceReader reader = new TraceReader(Path.of(args[1]))) {
+                StringBuilder sb = new StringBuilder();
+                while (reader.advance()) {
+                    sb.setLength(0);
+                    if (reader.hasTimestamps()) sb.append(reader.timestamp()).append(' ');
+                    System.out.println(sb.append(reader.toOperation()));
+                }
+            }
+        } else {
+            System.err.println("Uso: TraceTool import <entrada.txt> <saida.mstr> [--timestamps] | dump <trace.mstr>");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package br.edu.unifacisa;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Grava uma carga no formato binário de trace (.mstr), compacto e lido em fluxo pelo TraceReader.
+//
+// Formato:
+//   cabeçalho: "MSTR" | versão (1 byte) | flags (1 byte; bit 0 = registros com timestamp)
+//   registros: tag (1 byte) seguido dos campos em varint (LEB128 sem sinal)
+//     TAG_DEFINE: handle, tamanho do nome em bytes, nome UTF-8  -> associa um ID de processo ao handle
+//     TAG_ALLOC:  handle, tamanho em KB [, delta do timestamp]
+//     TAG_FREE:   handle [, delta do timestamp]
+// Os IDs de processo viram handles inteiros; um handle é definido antes do primeiro uso e reaproveitado
+// depois do FREE do processo, então a tabela de nomes do leitor fica do tamanho dos processos vivos.
+// Timestamps são gravados como diferença para o anterior e não podem diminuir.
+public class TraceWriter implements Closeable {
+    static final byte[] MAGIC = {'M', 'S', 'T', 'R'};
+    static final int VERSION = 1;
+    static final int FLAG_TIMESTAMPS = 1;
+    static final int TAG_DEFINE = 0;
+    static final int TAG_ALLOC = 1;
+    static final int TAG_FREE = 2;
+
+    private final OutputStream out;
+    private final boolean timestamps;
+    private final Map<String, Integer> handles = new HashMap<>();
+    private int nextHandle;
+    private int[] recycled = new int[16];
+    private int recycledCount;
+    private long lastTimestamp;
+    private long events;
+    private final byte[] scratch = new byte[16];
+
+    public TraceWriter(Path file, boolean timestamps) throws IOException {
+        this.out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+        this.timestamps = timestamps;
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.write(timestamps ? FLAG_TIMESTAMPS : 0);
+    }
+
+    public void write(Operation op) throws IOException {
+        if (timestamps) throw new IllegalStateException("Trace com timestamps: use write(op, timestamp)");
+        writeRecord(op, 0);
+    }
+
+    public void write(Operation op, long timestamp) throws IOException {
+        if (!timestamps) throw new IllegalStateException("Trace sem timestamps: use write(op)");
+        if (timestamp < lastTimestamp) {
+            throw new IllegalArgumentException("Timestamp " + timestamp + " anterior ao último (" + lastTimestamp + ")");
+        }
+        writeRecord(op, timestamp);
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    private void writeRecord(Operation op, long timestamp) throws IOException {
+        int handle = handleFor(op.processId);
+        if (op.type == Operation.Type.ALLOC) {
+            out.write(TAG_ALLOC);
+            writeVarint(handle);
+            writeVarint(op.sizeKb);
+        } else {
+            out.write(TAG_FREE);
+            writeVarint(handle);
+        }
+        if (timestamps) {
+            writeVarint(timestamp - lastTimestamp);
+            lastTimestamp = timestamp;
+        }
+        // depois do FREE o processo não tem mais blocos: o handle pode ser de outro processo
+        if (op.type == Operation.Type.FREE) {
+            handles.remove(op.processId);
+            if (recycledCount == recycled.length) recycled = Arrays.copyOf(recycled, recycled.length * 2);
+            recycled[recycledCount++] = handle;
+        }
+        events++;
+    }
+
+    private int handleFor(String processId) throws IOException {
+        Integer existing = handles.get(processId);
+        if (existing != null) return existing;
+        int handle = recycledCount > 0 ? recycled[--recycledCount] : nextHandle++;
+        handles.put(processId, handle);
+        byte[] name = processId.getBytes(StandardCharsets.UTF_8);
+        out.write(TAG_DEFINE);
+        writeVarint(handle);
+        writeVarint(name.length);
+        out.write(name);
+        return handle;
+    }
+
+    private void writeVarint(long value) throws IOException {
+        if (value < 0) throw new IllegalArgumentException("Valor negativo no trace: " + value);
+        int n = 0;
+        while ((value & ~0x7FL) != 0) {
+            scratch[n++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        scratch[n++] = (byte) value;
+        out.write(scratch, 0, n);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
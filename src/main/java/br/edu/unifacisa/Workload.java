@@ -1,14 +1,115 @@
 package br.edu.unifacisa;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 public class Workload {
     private final LinkedList<Operation> ops = new LinkedList<>();
+    // Operações lidas sob demanda (ex.: TraceReader.operations()), consumidas depois da fila
+    private Iterator<Operation> source;
+    // Quando a fonte é um trace aberto por setTrace ou um gerador de setGenerator: o arquivo ou a descrição do
+    // gerador e quantas operações dela já saíram (para StateFile)
+    private Path tracePath;
+    private String generatorSpec;
+    private long consumed;
+
+    public Workload() { }
+
+    public Workload(Iterator<Operation> source) { this.source = source; }
+
     public void add(Operation op) { ops.add(op); }
-    public Operation poll() { return ops.poll(); }
-    public boolean isEmpty() { return ops.isEmpty(); }
-    public void clear() { ops.clear(); }
-    @Override public String toString() { return ops.toString(); }
+
+    // Há uma fonte sob demanda (trace, gerador ou outra) depois da fila
+    public boolean hasSource() {
+        return source != null;
+    }
+
+    public Operation poll() {
+        Operation op = ops.poll();
+        if (op == null && source != null && source.hasNext()) {
+            op = source.next();
+            consumed++;
+        }
+        return op;
+    }
+
+    public boolean isEmpty() { return ops.isEmpty() && (source == null || !source.hasNext()); }
+
+    // Troca a fonte sob demanda, fechando a anterior
+    public void setSource(Iterator<Operation> source) {
+        closeSource();
+        this.source = source;
+    }
+
+    // Lê o trace binário sob demanda, pulando os primeiros skip eventos (retomada de um estado salvo)
+    public void setTrace(Path file, long skip) throws IOException {
+        TraceReader reader = new TraceReader(file);
+        long skipped = 0;
+        try {
+            while (skipped < skip && reader.advance()) skipped++;
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+        setSource(reader.operations());
+        tracePath = file;
+        consumed = skipped;
+    }
+
+    // Gera a carga sob demanda a partir da descrição de WorkloadGenerator.parse(), pulando as primeiras skip
+    // operações (sorteadas e descartadas: a memória continua constante)
+    public void setGenerator(String spec, long skip) {
+        WorkloadGenerator generator = WorkloadGenerator.parse(spec);
+        long skipped = 0;
+        while (skipped < skip && generator.hasNext()) {
+            generator.next();
+            skipped++;
+        }
+        setSource(generator);
+        generatorSpec = spec;
+        consumed = skipped;
+    }
+
+    // Trace aberto por setTrace (null se a fonte é outra ou não há fonte)
+    public Path getTracePath() {
+        return tracePath;
+    }
+
+    // Descrição do gerador de setGenerator (null se a fonte é outra ou não há fonte)
+    public String getGeneratorSpec() {
+        return generatorSpec;
+    }
+
+    // Operações da fonte (trace ou gerador) já entregues por poll(), contando as puladas ao abri-la
+    public long getConsumed() {
+        return consumed;
+    }
+
+    // Cópia das operações na fila, antes das da fonte
+    public List<Operation> queued() {
+        return new ArrayList<>(ops);
+    }
+
+    public void clear() {
+        ops.clear();
+        closeSource();
+    }
+
+    private void closeSource() {
+        if (source instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) source).close();
+            } catch (Exception ignored) {
+            }
+        }
+        source = null;
+        tracePath = null;
+        generatorSpec = null;
+        consumed = 0;
+    }
+
+    @Override public String toString() { return source == null ? ops.toString() : ops + " + " + (tracePath != null ? "trace" : "fonte"); }
 
     // Cria uma carga de trabalho de demonstração simples
     public static Workload demo() {
@@ -26,4 +127,29 @@ public class Workload {
         for (int i = 1; i <= 10; i++) w.add(Operation.free("P" + i));
         return w;
     }
+
+    // Carga aleatória reprodutível: alterna alocações de novos processos (1..maxSizeKb) e liberações de
+    // processos vivos escolhidos ao acaso, mantendo no máximo maxLive processos em memória
+    public static Workload random(long seed, int operations, int maxLive, int maxSizeKb) {
+        Workload w = new Workload();
+        Random r = new Random(seed);
+        List<String> live = new ArrayList<>();
+        int next = 1;
+        for (int i = 0; i < operations; i++) {
+            boolean free = !live.isEmpty() && (live.size() >= maxLive || r.nextBoolean());
+            if (free) {
+                // troca com o último para remover em O(1)
+                int k = r.nextInt(live.size());
+                String processId = live.get(k);
+                live.set(k, live.get(live.size() - 1));
+                live.remove(live.size() - 1);
+                w.add(Operation.free(processId));
+            } else {
+                String processId = "P" + next++;
+                live.add(processId);
+                w.add(Operation.alloc(processId, r.nextInt(maxSizeKb) + 1));
+            }
+        }
+        return w;
+    }
 }
\ No newline at end of file
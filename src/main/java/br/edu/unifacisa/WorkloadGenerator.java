@@ -0,0 +1,218 @@
+package br.edu.unifacisa;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+// Gerador sintético de carga, produzido sob demanda: cada next() sorteia a próxima operação, então a memória
+// usada depende só do conjunto vivo (targetLive), não da quantidade de operações. Serve como Iterator
+// (ex.: new Workload(gerador)) e como Spliterator.
+//
+// Cada processo alocado recebe um tempo de vida, em operações, sorteado da distribuição de vidas. A cada passo
+// o gerador libera o processo que expirou primeiro; se nenhum expirou, aloca enquanto houver menos que
+// targetLive vivos e, com o conjunto cheio, antecipa a liberação do que expiraria primeiro.
+//
+// split() entrega metade das operações restantes a um gerador independente. A semente do filho vem de um
+// SplittableRandom separado do usado nos sorteios, então os mesmos splits produzem sempre os mesmos
+// subfluxos, não importa quantas operações já foram geradas. Os IDs do filho ganham um prefixo próprio
+// ("P1.", "P1.2.", ...) para não colidir com os do pai.
+//
+// parse() monta um gerador a partir de uma descrição textual (a mesma devolvida por getSpec()), usada para
+// guardar a carga em um StateFile e recriá-la depois: com a mesma descrição a sequência é a mesma.
+public class WorkloadGenerator implements Iterator<Operation>, Spliterator<Operation> {
+    private final SplittableRandom random;
+    private final SplittableRandom splitter;
+    private final String prefix;
+    private long remaining;
+    private int children;
+
+    private Distribution sizes = Distribution.uniform(1, 24);
+    private Distribution lifetimes;
+    private int targetLive = 10;
+    private String spec;          // descrição de parse(); null se montado por código
+
+    // heap mínimo (tempo de expiração, número do processo) dos processos vivos
+    private long[] expiry = new long[0];
+    private long[] ids = new long[0];
+    private int live;
+    private long clock;
+    private long nextId = 1;
+
+    public WorkloadGenerator(long seed, long operations) {
+        this(new SplittableRandom(seed), "P", operations);
+    }
+
+    private WorkloadGenerator(SplittableRandom splitter, String prefix, long operations) {
+        if (operations < 0) throw new IllegalArgumentException("Quantidade de operações negativa: " + operations);
+        this.random = splitter.split();
+        this.splitter = splitter;
+        this.prefix = prefix;
+        this.remaining = operations;
+    }
+
+    // Lê "seed=N;ops=N;live=N;sizes=DIST[;lifetimes=DIST]" (DIST no formato de Distribution.parse)
+    public static WorkloadGenerator parse(String spec) {
+        long seed = 0, operations = -1;
+        int live = 10;
+        Distribution sizes = null, lifetimes = null;
+        try {
+            for (String field : spec.split(";")) {
+                int eq = field.indexOf('=');
+                String key = field.substring(0, eq), value = field.substring(eq + 1);
+                switch (key) {
+                    case "seed" -> seed = Long.parseLong(value);
+                    case "ops" -> operations = Long.parseLong(value);
+                    case "live" -> live = Integer.parseInt(value);
+                    case "sizes" -> sizes = Distribution.parse(value);
+                    case "lifetimes" -> lifetimes = Distribution.parse(value);
+                    default -> throw new IllegalArgumentException("Campo desconhecido: " + key);
+                }
+            }
+        } catch (StringIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Gerador mal formado: " + spec, e);
+        }
+        if (operations < 0) throw new IllegalArgumentException("Gerador sem quantidade de operações: " + spec);
+        WorkloadGenerator generator = new WorkloadGenerator(seed, operations).targetLive(live);
+        if (sizes != null) generator.sizes(sizes);
+        if (lifetimes != null) generator.lifetimes(lifetimes);
+        generator.spec = spec;
+        return generator;
+    }
+
+    // Descrição aceita por parse() que recria este gerador desde o início (null se não veio de parse())
+    public String getSpec() {
+        return spec;
+    }
+
+    // Distribuição dos tamanhos pedidos, em KB
+    public WorkloadGenerator sizes(Distribution sizes) {
+        this.sizes = sizes;
+        return this;
+    }
+
+    // Distribuição dos tempos de vida, em operações. Padrão: exponencial com média 2 * targetLive
+    public WorkloadGenerator lifetimes(Distribution lifetimes) {
+        this.lifetimes = lifetimes;
+        return this;
+    }
+
+    // Quantidade máxima de processos vivos ao mesmo tempo
+    public WorkloadGenerator targetLive(int targetLive) {
+        if (targetLive < 1) throw new IllegalArgumentException("targetLive deve ser positivo: " + targetLive);
+        this.targetLive = targetLive;
+        return this;
+    }
+
+    public long remaining() {
+        return remaining;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return remaining > 0;
+    }
+
+    @Override
+    public Operation next() {
+        if (remaining <= 0) throw new NoSuchElementException();
+        remaining--;
+        clock++;
+        if (live > 0 && (expiry[0] <= clock || live >= targetLive)) {
+            return Operation.free(name(popMin()));
+        }
+        if (lifetimes == null) lifetimes = Distribution.exponential(2.0 * targetLive);
+        long id = nextId++;
+        push(clock + lifetimes.sample(random), id);
+        return Operation.alloc(name(id), sizes.sample(random));
+    }
+
+    // Gerador independente com metade das operações restantes e a mesma configuração
+    public WorkloadGenerator split() {
+        return split(remaining / 2);
+    }
+
+    // Gerador independente com exatamente operations das operações restantes (ex.: uma fatia igual por thread)
+    public WorkloadGenerator split(long operations) {
+        if (operations < 0 || operations > remaining) {
+            throw new IllegalArgumentException("Não há " + operations + " operações restantes para dividir");
+        }
+        remaining -= operations;
+        WorkloadGenerator child = new WorkloadGenerator(splitter.split(), prefix + (++children) + ".", operations);
+        child.sizes = sizes;
+        child.lifetimes = lifetimes;
+        child.targetLive = targetLive;
+        return child;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Operation> action) {
+        if (remaining <= 0) return false;
+        action.accept(next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Operation> action) {
+        while (remaining > 0) action.accept(next());
+    }
+
+    @Override
+    public Spliterator<Operation> trySplit() {
+        return remaining < 2 ? null : split();
+    }
+
+    @Override
+    public long estimateSize() {
+        return remaining;
+    }
+
+    // Não é ORDERED: as partes são fluxos independentes, não trechos de uma sequência única
+    @Override
+    public int characteristics() {
+        return SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+
+    private String name(long id) {
+        return prefix + id;
+    }
+
+    private void push(long time, long id) {
+        if (live == expiry.length) {
+            int capacity = Math.max(live + 1, Math.min(targetLive, Math.max(16, live * 2)));
+            expiry = Arrays.copyOf(expiry, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+        }
+        int i = live++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (expiry[parent] <= time) break;
+            expiry[i] = expiry[parent];
+            ids[i] = ids[parent];
+            i = parent;
+        }
+        expiry[i] = time;
+        ids[i] = id;
+    }
+
+    private long popMin() {
+        long id = ids[0];
+        long time = expiry[--live];
+        long lastId = ids[live];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= live) break;
+            if (child + 1 < live && expiry[child + 1] < expiry[child]) child++;
+            if (expiry[child] >= time) break;
+            expiry[i] = expiry[child];
+            ids[i] = ids[child];
+            i = child;
+        }
+        expiry[i] = time;
+        ids[i] = lastId;
+        return id;
+    }
+}